@@ -0,0 +1,67 @@
+package Benchmarks;
+
+import Board.Board;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * building boards - the standard one and custom boards read from files
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    /**
+     * board file of one of the positions, standard output is silenced, createCustomBoard echoes the board to it
+     */
+    @State(Scope.Thread)
+    public static class CustomBoard {
+
+        @Param({"kiwipete", "position3", "position4", "position5", "position6"})
+        public String position;
+
+        private File file;
+        private PrintStream out;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            this.file = Corpus.positionFile(this.position);
+            this.out = Corpus.silenceOutput();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            System.setOut(this.out);
+        }
+    }
+
+    @Benchmark
+    public Board createStandardBoard() {
+        return Board.createStandardBoard();
+    }
+
+    @Benchmark
+    public Board createCustomBoard(CustomBoard customBoard) throws IOException {
+        return Board.createCustomBoard(customBoard.file.getPath());
+    }
+}
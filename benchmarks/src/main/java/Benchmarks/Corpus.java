@@ -0,0 +1,110 @@
+package Benchmarks;
+
+import Board.Board;
+import Moves.Move;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * fixed positions and games all benchmarks run on, so numbers of different runs and commits can be compared
+ *
+ * positions are the perft reference positions (src/perft) and "std" for the standard starting position,
+ * games are the PGN files in src; the directory is taken from the system property chess.corpus,
+ * by default the src directory of the game when benchmarks are run from the benchmarks directory
+ */
+public class Corpus {
+
+    public static final String CORPUS_PROPERTY = "chess.corpus";
+    private static final String DEFAULT_CORPUS = "../src";
+
+    Corpus() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    public static File getDirectory() {
+        return new File(System.getProperty(CORPUS_PROPERTY, DEFAULT_CORPUS));
+    }
+
+    /**
+     * @param name "std" or name of a board file in the perft directory (without .txt)
+     * @return file of the position, null for "std"
+     */
+    public static File positionFile(String name) {
+        if ("std".equals(name)) {
+            return null;
+        }
+        final File file = new File(new File(getDirectory(), "perft"), name + ".txt");
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("Position not found: " + file.getAbsolutePath());
+        }
+        return file;
+    }
+
+    /**
+     * @param name name of a PGN file in the corpus directory
+     * @return
+     */
+    public static File gameFile(String name) {
+        final File file = new File(getDirectory(), name);
+        if (!file.isFile()) {
+            throw new IllegalArgumentException("Game not found: " + file.getAbsolutePath());
+        }
+        return file;
+    }
+
+    /**
+     * @param name "std" or name of a board file in the perft directory (without .txt)
+     * @return
+     * @throws IOException
+     */
+    public static Board loadPosition(String name) throws IOException {
+        final File file = positionFile(name);
+        if (file == null) {
+            return Board.createStandardBoard();
+        }
+        final PrintStream out = silenceOutput();
+        try {
+            return Board.createCustomBoard(file.getPath());
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * @param board
+     * @return legal moves of the player on move that can really be played (they don't leave the king in check)
+     */
+    public static List<Move> playableMoves(Board board) {
+        final List<Move> moves = new ArrayList();
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (board.currentPlayer().makeMove(move).getMoveStatus().isDone()) {
+                moves.add(move);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * createCustomBoard echoes the board it reads to standard output, that would be measured as writing
+     * to the console (and flood the output of the benchmark)
+     * @return the previous standard output, to be set back
+     */
+    public static PrintStream silenceOutput() {
+        final PrintStream out = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }));
+        return out;
+    }
+}
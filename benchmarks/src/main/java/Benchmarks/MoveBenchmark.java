@@ -0,0 +1,75 @@
+package Benchmarks;
+
+import Board.Board;
+import Moves.MakingMove;
+import Moves.Move;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * playing moves - every call takes the next legal move of the position, so all kinds of moves
+ * (captures, castling, en passant, promotions) of the position are measured in turn
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MoveBenchmark {
+
+    @Param({"std", "kiwipete", "position3", "position4", "position5", "position6"})
+    public String position;
+
+    private Board board;
+    private Move[] moves;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.board = Corpus.loadPosition(this.position);
+        final List<Move> playable = Corpus.playableMoves(this.board);
+        this.moves = playable.toArray(new Move[playable.size()]);
+    }
+
+    private Move nextMove() {
+        final Move move = this.moves[this.index];
+        this.index = (this.index + 1) % this.moves.length;
+        return move;
+    }
+
+    @Benchmark
+    public Board execute() {
+        return nextMove().execute();
+    }
+
+    /**
+     * legal moves of the board are already known (the board remembers them), measured is the check
+     * that the move is legal, the new board and the test that it doesn't leave the king in check
+     */
+    @Benchmark
+    public MakingMove makeMove() {
+        return this.board.currentPlayer().makeMove(nextMove());
+    }
+
+    @Benchmark
+    public Move createMove() {
+        final Move move = nextMove();
+        return Move.createMove(this.board, move.getMovedPiece().getPiecePosition(), move.getNewCoord());
+    }
+}
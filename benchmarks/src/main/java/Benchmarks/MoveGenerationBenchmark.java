@@ -0,0 +1,125 @@
+package Benchmarks;
+
+import Board.Board;
+import Moves.Move;
+import Pieces.Piece;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * generating moves of single pieces and finding out whether a player is mated
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoveGenerationBenchmark {
+
+    /**
+     * pieces of one type (of both teams) in one of the positions, every call asks the next one for its moves,
+     * only positions with all types of pieces are used
+     */
+    @State(Scope.Thread)
+    public static class Pieces {
+
+        @Param({"std", "kiwipete", "position4", "position5", "position6"})
+        public String position;
+
+        @Param({"PAWN", "ROOK", "KNIGHT", "BISHOP", "QUEEN", "KING"})
+        public Piece.PieceType pieceType;
+
+        private Board board;
+        private Piece[] pieces;
+        private int index;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            this.board = Corpus.loadPosition(this.position);
+            final List<Piece> found = new ArrayList();
+            for (final Piece piece : this.board.getAllPieces()) {
+                if (piece.getPieceType() == this.pieceType) {
+                    found.add(piece);
+                }
+            }
+            if (found.isEmpty()) {
+                throw new IllegalStateException("No " + this.pieceType + " in position " + this.position);
+            }
+            this.pieces = found.toArray(new Piece[found.size()]);
+        }
+
+        Piece next() {
+            final Piece piece = this.pieces[this.index];
+            this.index = (this.index + 1) % this.pieces.length;
+            return piece;
+        }
+    }
+
+    /**
+     * boards one move away from one of the positions - the answer of isInCheckMate is remembered by the board,
+     * so every invocation gets a batch of boards that have not been asked yet, building them is not measured
+     * (their allocations are still counted by -prof gc, compare with MoveBenchmark.execute)
+     */
+    @State(Scope.Thread)
+    public static class NextBoards {
+
+        //a single call is too short to be timed on its own
+        static final int BATCH = 256;
+
+        @Param({"std", "kiwipete", "position3", "position4", "position5", "position6"})
+        public String position;
+
+        private Move[] moves;
+        private int index;
+        private final Board[] boards = new Board[BATCH];
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            final List<Move> playable = Corpus.playableMoves(Corpus.loadPosition(this.position));
+            this.moves = playable.toArray(new Move[playable.size()]);
+        }
+
+        @Setup(Level.Invocation)
+        public void nextBoards() {
+            for (int i = 0; i < BATCH; i++) {
+                this.boards[i] = this.moves[this.index].execute();
+                this.index = (this.index + 1) % this.moves.length;
+            }
+        }
+    }
+
+    @Benchmark
+    public Collection<Move> getPossibleMoves(Pieces pieces) {
+        return pieces.next().getPossibleMoves(pieces.board);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NextBoards.BATCH)
+    public int isInCheckMate(NextBoards nextBoards) {
+        int mates = 0;
+        for (final Board board : nextBoards.boards) {
+            if (board.currentPlayer().isInCheckMate()) {
+                mates++;
+            }
+        }
+        return mates;
+    }
+}
@@ -0,0 +1,50 @@
+package Benchmarks;
+
+import GUI.PGNGame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * reading whole games - every move of the file is parsed, looked up among legal moves and played
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PGNBenchmark {
+
+    @Param({"Adams.pgn", "PGN.pgn"})
+    public String game;
+
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.file = Corpus.gameFile(this.game);
+    }
+
+    /**
+     * the history type is not visible outside the GUI package, it is returned only to be consumed
+     */
+    @Benchmark
+    public Object getMoveHistory() throws IOException {
+        return PGNGame.getMoveHistory(this.file);
+    }
+}
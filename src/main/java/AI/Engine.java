@@ -0,0 +1,297 @@
+package AI;
+
+import Board.BitBoard;
+import Board.Board;
+import Moves.LegalMoveGenerator;
+import Moves.Move;
+import Moves.MoveList;
+import Moves.PackedMove;
+import Perft.Perft;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * computer player - finds the best move of the player on move by negamax alpha-beta search,
+ * positions at the end of searched lines are scored by the evaluator
+ *
+ * with more threads the same root is searched by all of them at once (lazy SMP), they share only the transposition
+ * table and the time manager, the calling thread is the main one - its result is played unless a helper finished
+ * a deeper iteration; the evaluator is shared by all threads, so it must be thread-safe
+ *
+ * usage:
+ *  Engine std|boardFile [depth] [moveTimeMillis] [hashMB] [threads]      moveTimeMillis 0 searches to the depth
+ */
+public class Engine {
+
+    private static final int DEFAULT_DEPTH = 6;
+
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final int threads;
+    private ExecutorService helpers;
+    private volatile TimeManager timer;
+    private int score;
+    private long nodes;
+    private int depth;
+
+    public Engine() {
+        this(new PawnStructureEvaluator(new PieceSquareEvaluator(), PawnStructureEvaluator.DEFAULT_KILOBYTES));
+    }
+
+    /**
+     * @param evaluator scores positions for the search
+     */
+    public Engine(Evaluator evaluator) {
+        this(evaluator, TranspositionTable.DEFAULT_MEGABYTES);
+    }
+
+    /**
+     * @param evaluator scores positions for the search
+     * @param hashMegabytes size of the transposition table
+     */
+    public Engine(Evaluator evaluator, int hashMegabytes) {
+        this(evaluator, hashMegabytes, 1);
+    }
+
+    /**
+     * @param evaluator scores positions for the search, thread-safe if there are more threads
+     * @param hashMegabytes size of the transposition table
+     * @param threads searching threads, including the one calling chooseMove
+     */
+    public Engine(Evaluator evaluator, int hashMegabytes, int threads) {
+        this.evaluator = evaluator;
+        this.table = new TranspositionTable(hashMegabytes);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * searches by iterative deepening until a limit is reached, the move of the last finished iteration is returned
+     * @param board position of the game, it is not changed
+     * @param limits
+     * @return best move of the player on move, NullMove if he has no legal move (the game is over)
+     */
+    public Move chooseMove(Board board, SearchLimits limits) {
+        return chooseMove(board, limits, null);
+    }
+
+    /**
+     * @param board position of the game, it is not changed
+     * @param limits
+     * @param listener gets the progress after every iteration of the main thread, may be null
+     * @return best move of the player on move, NullMove if he has no legal move (the game is over)
+     */
+    public Move chooseMove(Board board, final SearchLimits limits, final SearchListener listener) {
+        final long start = System.nanoTime();
+        final TimeManager timer = new TimeManager(limits);
+        this.timer = timer;
+        this.table.newSearch();
+        final BitBoard root = board.getBitBoard();
+        final Searcher[] searchers = new Searcher[this.threads];
+        final List<Future<?>> running = new ArrayList();
+        for (int i = 1; i < this.threads; i++) {
+            final Searcher helper = new Searcher(new BitBoard(root), this.evaluator, timer, this.table, i);
+            searchers[i] = helper;
+            running.add(getHelpers().submit(new Runnable() {
+                public void run() {
+                    helper.think(limits.getDepth(), limits.isTimeLimited(), null);
+                }
+            }));
+        }
+        final Searcher main = new Searcher(new BitBoard(root), this.evaluator, timer, this.table, 0);
+        searchers[0] = main;
+        Runnable progress = null;
+        if (listener != null) {
+            progress = new Runnable() {
+                public void run() {
+                    long nodes = 0;
+                    for (final Searcher searcher : searchers) {
+                        nodes += searcher.getNodes();
+                    }
+                    listener.iterationFinished(new SearchInfo(main.getCompletedDepth(), main.getScore(), nodes,
+                            (System.nanoTime() - start) / 1000000, principalVariation(root, main.getBestMove(), main.getCompletedDepth())));
+                }
+            };
+        }
+        try {
+            main.think(limits.getDepth(), limits.isTimeLimited(), progress);
+        } finally {
+            //helpers search until the main searcher is done
+            timer.stop();
+            waitFor(running);
+            this.timer = null;
+        }
+
+        Searcher searcher = searchers[0];
+        this.nodes = 0;
+        for (final Searcher candidate : searchers) {
+            this.nodes += candidate.getNodes();
+            if (candidate.getCompletedDepth() > searcher.getCompletedDepth()) {
+                searcher = candidate;
+            }
+        }
+        this.score = searcher.getScore();
+        this.depth = searcher.getCompletedDepth();
+        if (searcher.getBestMove() == PackedMove.NONE) {
+            return new Move.NullMove();
+        }
+        return PackedMove.toMove(board, searcher.getBestMove());
+    }
+
+    /**
+     * the best move and then the best moves stored in the transposition table, as long as they are legal
+     * @param root
+     * @param bestMove
+     * @param maxLength
+     * @return moves in coordinate notation
+     */
+    private List<String> principalVariation(BitBoard root, int bestMove, int maxLength) {
+        final List<String> variation = new ArrayList();
+        final BitBoard board = new BitBoard(root);
+        final MoveList moves = new MoveList();
+        int move = bestMove;
+        while (move != PackedMove.NONE && variation.size() < maxLength) {
+            moves.clear();
+            LegalMoveGenerator.generateLegal(board, moves);
+            if (!moves.contains(move)) {
+                break;
+            }
+            variation.add(PackedMove.toString(move));
+            board.makeMove(move);
+            move = TranspositionTable.getMove(this.table.probe(board.getZobristKey()));
+        }
+        return variation;
+    }
+
+    private ExecutorService getHelpers() {
+        if (this.helpers == null) {
+            this.helpers = Executors.newFixedThreadPool(this.threads - 1, new ThreadFactory() {
+                private int count;
+
+                public Thread newThread(Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "Search helper " + (++this.count));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return this.helpers;
+    }
+
+    private static void waitFor(List<Future<?>> running) {
+        boolean interrupted = false;
+        for (final Future<?> future : running) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw new RuntimeException(e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * stops the helper threads, the engine can't be used after it
+     */
+    public void shutdown() {
+        if (this.helpers != null) {
+            this.helpers.shutdownNow();
+        }
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    /**
+     * forgets all searched positions, positions of the previous game are useless in a new one
+     */
+    public void newGame() {
+        this.table.clear();
+    }
+
+    public TranspositionTable getTable() {
+        return this.table;
+    }
+
+    /**
+     * stops the running search from another thread, chooseMove returns the best move found so far
+     */
+    public void stop() {
+        final TimeManager timer = this.timer;
+        if (timer != null) {
+            timer.stop();
+        }
+    }
+
+    /**
+     * @return score of the last chosen move for the player who played it, in centipawns
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * @return positions searched to choose the last move
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return depth of the last finished iteration of the last search
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @param score
+     * @return true if the score means a forced mate for one of the sides
+     */
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) > Searcher.MATE - Searcher.MAX_PLY;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: Engine std|boardFile [depth] [moveTimeMillis] [hashMB] [threads]");
+            System.exit(2);
+        }
+        final Board board = Perft.loadBoard(args[0]);
+        final int hashMegabytes = args.length > 3 ? Integer.parseInt(args[3]) : TranspositionTable.DEFAULT_MEGABYTES;
+        final int threads = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        final PawnStructureEvaluator evaluator = new PawnStructureEvaluator(new PieceSquareEvaluator(), PawnStructureEvaluator.DEFAULT_KILOBYTES);
+        final Engine engine = new Engine(evaluator, hashMegabytes, threads);
+        final SearchLimits.Builder builder = new SearchLimits.Builder().setDepth(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_DEPTH);
+        if (args.length > 2 && Long.parseLong(args[2]) > 0) {
+            builder.setMoveTime(Long.parseLong(args[2]));
+        }
+        final SearchLimits limits = builder.build();
+        final long start = System.nanoTime();
+        final Move move = engine.chooseMove(board, limits, new SearchListener() {
+            public void iterationFinished(SearchInfo info) {
+                System.err.println(info);
+            }
+        });
+        final double time = (System.nanoTime() - start) / 1e9;
+        final long pawnLookups = Math.max(1, evaluator.getHits() + evaluator.getMisses());
+        System.err.println(String.format("%s  move %s  depth %d  score %d  nodes %,d  time %.3f s  %,.0f nodes/s  hash %d MB, %d %% full  pawn hash hits %.1f %%",
+                limits, move, engine.getDepth(), engine.getScore(), engine.getNodes(), time, engine.getNodes() / time,
+                hashMegabytes, engine.getTable().getFullness() / 10, 100.0 * evaluator.getHits() / pawnLookups));
+        engine.shutdown();
+    }
+}
@@ -0,0 +1,15 @@
+package AI;
+
+import Moves.Move;
+
+/**
+ * gets the progress and the result of a search run by EngineService, both are called from the searching thread
+ */
+public interface EngineListener extends SearchListener {
+
+    /**
+     * not called when the search was cancelled
+     * @param move best move found, NullMove if the player on move has none
+     */
+    void searchFinished(Move move);
+}
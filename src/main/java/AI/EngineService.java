@@ -0,0 +1,173 @@
+package AI;
+
+import Board.Board;
+import Moves.Move;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * runs searches of an engine on its own thread, so the thread asking for a move (the Swing event thread) never waits
+ * for it - the progress and the chosen move come to a listener, on the searching thread
+ *
+ * one search runs at a time, a new one cancels the running one; a cancelled search (undo, new game) stops as soon
+ * as possible and its listener hears nothing more, a search that runs out of its timeout is stopped too, but
+ * the best move found so far is still delivered
+ *
+ * the searching threads run with a lower priority than the thread that created the service, so the window keeps
+ * redrawing while the engine uses all cores
+ */
+public class EngineService {
+
+    private final Engine engine;
+    private final ExecutorService searches;
+    private final ScheduledExecutorService timeouts;
+    private SearchTask current;
+
+    /**
+     * @param engine used only by this service from now on
+     */
+    public EngineService(Engine engine) {
+        this.engine = engine;
+        final int priority = Math.max(Thread.MIN_PRIORITY, Thread.currentThread().getPriority() - 1);
+        this.searches = Executors.newSingleThreadExecutor(daemonThreads("Engine", priority));
+        this.timeouts = Executors.newSingleThreadScheduledExecutor(daemonThreads("Engine timeout", Thread.NORM_PRIORITY));
+    }
+
+    /**
+     * helper threads of the engine are created by the searching thread and get its priority
+     */
+    private static ThreadFactory daemonThreads(final String name, final int priority) {
+        return new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                thread.setPriority(priority);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * starts a search and returns at once, the running search is cancelled
+     * @param board position of the game, it is not changed
+     * @param limits
+     * @param timeoutMillis the search is stopped after this time even if the limits allow more, 0 for no timeout
+     * @param listener gets the progress and the move
+     * @return the move, NullMove if the search was cancelled
+     */
+    public synchronized Future<Move> search(Board board, SearchLimits limits, long timeoutMillis, EngineListener listener) {
+        cancel();
+        final SearchTask task = new SearchTask(board, limits, listener);
+        this.current = task;
+        final Future<Move> future = this.searches.submit(task);
+        if (timeoutMillis > 0) {
+            task.timeout = this.timeouts.schedule(new Runnable() {
+                public void run() {
+                    task.stop();
+                }
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return future;
+    }
+
+    /**
+     * stops the running search, its listener gets nothing more
+     */
+    public synchronized void cancel() {
+        if (this.current != null) {
+            this.current.cancelled = true;
+            this.current.stop();
+            if (this.current.timeout != null) {
+                this.current.timeout.cancel(false);
+            }
+            this.current = null;
+        }
+    }
+
+    /**
+     * cancels the running search and forgets everything from the previous game
+     */
+    public synchronized void newGame() {
+        cancel();
+        //the table is cleared on the searching thread, after the cancelled search is over
+        this.searches.submit(new Runnable() {
+            public void run() {
+                engine.newGame();
+            }
+        });
+    }
+
+    /**
+     * cancels the running search and stops all threads, the service can't be used after it
+     */
+    public synchronized void shutdown() {
+        cancel();
+        this.searches.shutdown();
+        this.timeouts.shutdownNow();
+        this.engine.shutdown();
+    }
+
+    private class SearchTask implements Callable<Move> {
+        private final Board board;
+        private final SearchLimits limits;
+        private final EngineListener listener;
+        private volatile boolean cancelled;
+        private volatile boolean stopped;
+        private volatile boolean running;
+        private volatile ScheduledFuture<?> timeout;
+
+        SearchTask(Board board, SearchLimits limits, EngineListener listener) {
+            this.board = board;
+            this.limits = limits;
+            this.listener = listener;
+        }
+
+        /**
+         * stops the search, the engine itself can be stopped only while it searches, so the stop is also remembered
+         */
+        void stop() {
+            this.stopped = true;
+            if (this.running) {
+                engine.stop();
+            }
+        }
+
+        public Move call() {
+            if (this.cancelled) {
+                return new Move.NullMove();
+            }
+            this.running = true;
+            final Move move;
+            try {
+                move = engine.chooseMove(this.board, this.limits, new SearchListener() {
+                    public void iterationFinished(SearchInfo info) {
+                        //a stop that came before the engine started its search is repeated here
+                        if (stopped) {
+                            engine.stop();
+                        }
+                        if (!cancelled) {
+                            listener.iterationFinished(info);
+                        }
+                    }
+                });
+            } finally {
+                this.running = false;
+                if (this.timeout != null) {
+                    this.timeout.cancel(false);
+                }
+            }
+            if (this.cancelled) {
+                return new Move.NullMove();
+            }
+            this.listener.searchFinished(move);
+            return move;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package AI;
+
+import Board.BitBoard;
+
+/**
+ * evaluation of positions for the search, every engine can get its own one
+ */
+public interface Evaluator {
+
+    /**
+     * @param board position at the end of a searched line, the side to move is not mated
+     * @return score in centipawns (pawn = 100), positive when the position is good for the side to move
+     */
+    int evaluate(BitBoard board);
+}
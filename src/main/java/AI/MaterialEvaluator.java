@@ -0,0 +1,33 @@
+package AI;
+
+import Board.BitBoard;
+import Pieces.Piece;
+import Players.Team;
+
+/**
+ * counts material only - the simplest evaluation, the search decides everything else
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    /**
+     * values of pieces in centipawns, indexed by piece type ordinal, the king is never captured
+     */
+    static final int[] PIECE_VALUES = new int[Piece.PieceType.values().length];
+
+    static {
+        PIECE_VALUES[Piece.PieceType.PAWN.ordinal()] = 100;
+        PIECE_VALUES[Piece.PieceType.KNIGHT.ordinal()] = 320;
+        PIECE_VALUES[Piece.PieceType.BISHOP.ordinal()] = 330;
+        PIECE_VALUES[Piece.PieceType.ROOK.ordinal()] = 500;
+        PIECE_VALUES[Piece.PieceType.QUEEN.ordinal()] = 900;
+        PIECE_VALUES[Piece.PieceType.KING.ordinal()] = 0;
+    }
+
+    public int evaluate(BitBoard board) {
+        int score = 0;
+        for (int type = 0; type < 6; type++) {
+            score += PIECE_VALUES[type] * (Long.bitCount(board.getPieces(type)) - Long.bitCount(board.getPieces(6 + type)));
+        }
+        return board.getSideToMove() == Team.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,156 @@
+package AI;
+
+import Moves.MoveList;
+import Moves.PackedMove;
+
+/**
+ * decides in which order the search tries moves - alpha-beta cuts off the rest of the moves as soon as one is good
+ * enough, so the sooner the best move comes, the smaller the tree
+ *
+ * order: the best move stored in the transposition table, captures and promotions by most valuable victim - least
+ * valuable attacker (a pawn taking a queen first, a queen taking a pawn last), killer moves (quiet moves that caused
+ * a cutoff at the same ply in a sibling position), and other quiet moves by history (how often the same move of the
+ * same side caused cutoffs anywhere in the tree)
+ *
+ * moves are scored once and then picked one by one, nodes cut off after the first move or two don't pay for sorting
+ * the whole list; every searcher has its own ordering, killers and history are not shared between threads
+ */
+class MoveOrdering {
+
+    private static final int TABLE_MOVE = 1 << 30;
+    private static final int CAPTURE = 1 << 28;
+    private static final int KILLER = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 26;   //history is halved when some value reaches it
+
+    //victim and attacker ranks by piece type ordinal (pawn, rook, knight, bishop, queen, king)
+    private static final int[] RANK = {1, 4, 2, 3, 5, 6};
+
+    private final int[][] scores;
+    private final int[][] killers;
+    private final int[] history = new int[2 * 64 * 64];   //by side, from and to tile (butterfly board)
+
+    /**
+     * @param maxPly
+     */
+    MoveOrdering(int maxPly) {
+        this.scores = new int[maxPly][MoveList.MAX_MOVES];
+        this.killers = new int[maxPly][2];
+    }
+
+    /**
+     * scores the generated moves of a node, must be called before pickNext
+     * @param list
+     * @param ply
+     * @param tableMove best move from the transposition table, PackedMove.NONE if there is none
+     */
+    void score(MoveList list, int ply, int tableMove) {
+        final int[] scores = this.scores[ply];
+        final int[] killers = this.killers[ply];
+        for (int i = 0; i < list.size(); i++) {
+            final int move = list.get(i);
+            if (move == tableMove) {
+                scores[i] = TABLE_MOVE;
+            } else if (!PackedMove.isQuiet(move)) {
+                scores[i] = CAPTURE + captureScore(move);
+            } else if (move == killers[0]) {
+                scores[i] = KILLER + 1;
+            } else if (move == killers[1]) {
+                scores[i] = KILLER;
+            } else {
+                scores[i] = this.history[historyIndex(move)];
+            }
+        }
+    }
+
+    /**
+     * most valuable victim first, of the same victims the least valuable attacker first, promotions by the new piece
+     */
+    private static int captureScore(int move) {
+        int score = 0;
+        if (PackedMove.isCapture(move)) {
+            score += RANK[PackedMove.getCaptured(move) % 6] * 16 - RANK[PackedMove.getPiece(move) % 6];
+        }
+        if (PackedMove.isPromotion(move)) {
+            score += RANK[PackedMove.getPromotion(move)] * 16;
+        }
+        return score;
+    }
+
+    /**
+     * moves the best of the remaining moves to given index
+     * @param list
+     * @param ply
+     * @param index number of moves already picked
+     * @return move at index
+     */
+    int pickNext(MoveList list, int ply, int index) {
+        final int[] scores = this.scores[ply];
+        int best = index;
+        for (int i = index + 1; i < list.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            list.swap(index, best);
+            final int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+        return list.get(index);
+    }
+
+    /**
+     * a move caused a beta cutoff - quiet moves become killers of the ply and get history bonus,
+     * the quiet moves tried before it get a malus
+     * @param list moves of the node
+     * @param cutoffIndex index of the move in the list, moves before it were searched without a cutoff
+     * @param ply
+     * @param depth remaining depth of the node, cutoffs deep in the tree count less
+     */
+    void cutoff(MoveList list, int cutoffIndex, int ply, int depth) {
+        final int move = list.get(cutoffIndex);
+        if (!PackedMove.isQuiet(move)) {
+            return;
+        }
+        final int[] killers = this.killers[ply];
+        if (killers[0] != move) {
+            killers[1] = killers[0];
+            killers[0] = move;
+        }
+        final int bonus = depth * depth;
+        for (int i = 0; i < cutoffIndex; i++) {
+            final int tried = list.get(i);
+            if (PackedMove.isQuiet(tried)) {
+                final int index = historyIndex(tried);
+                this.history[index] = Math.max(0, this.history[index] - bonus);
+            }
+        }
+        final int index = historyIndex(move);
+        this.history[index] += bonus;
+        if (this.history[index] >= HISTORY_LIMIT) {
+            age();
+        }
+    }
+
+    /**
+     * called before every search - killers belong to the previous positions, history is kept but counts less
+     */
+    void newSearch() {
+        for (final int[] killers : this.killers) {
+            killers[0] = PackedMove.NONE;
+            killers[1] = PackedMove.NONE;
+        }
+        age();
+    }
+
+    private void age() {
+        for (int i = 0; i < this.history.length; i++) {
+            this.history[i] /= 2;
+        }
+    }
+
+    private static int historyIndex(int move) {
+        return (PackedMove.getPiece(move) / 6) << 12 | PackedMove.getFrom(move) << 6 | PackedMove.getTo(move);
+    }
+}
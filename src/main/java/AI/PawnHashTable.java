@@ -0,0 +1,75 @@
+package AI;
+
+/**
+ * cache of pawn structure scores keyed by the pawn key of the position - pawns move rarely, so most positions of
+ * a search have a pawn structure scored before; every search thread has its own table, no synchronization is needed
+ *
+ * every entry is two longs - the pawn key and the scores (middlegame in the upper half, endgame in the lower one)
+ */
+class PawnHashTable {
+
+    static final int MAX_KILOBYTES = 8 * 1024 * 1024;   //the table is one array, it can't have 2^31 longs
+
+    private final long[] table;
+    private final int mask;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param kilobytes size of the table, rounded down to a power of two number of entries, at most MAX_KILOBYTES
+     *                  (checked by PawnStructureEvaluator)
+     */
+    PawnHashTable(int kilobytes) {
+        final long entries = Long.highestOneBit(Math.max(1L, kilobytes) * 1024 / 16);
+        this.table = new long[(int) (entries * 2)];
+        this.mask = (int) entries - 1;
+    }
+
+    /**
+     * @param pawnKey
+     * @return index of the entry of the key, negative (minus index minus one) if the entry holds another structure
+     */
+    int find(long pawnKey) {
+        final int index = ((int) pawnKey & this.mask) * 2;
+        //an empty entry has key 0 and score 0, that is also the right score of no pawns at all
+        if (this.table[index] == pawnKey) {
+            this.hits++;
+            return index;
+        }
+        this.misses++;
+        return -index - 1;
+    }
+
+    int getMidgame(int index) {
+        return (int) (this.table[index + 1] >> 32);
+    }
+
+    int getEndgame(int index) {
+        return (int) this.table[index + 1];
+    }
+
+    void store(int index, long pawnKey, int midgame, int endgame) {
+        this.table[index] = pawnKey;
+        this.table[index + 1] = (long) midgame << 32 | (endgame & 0xFFFFFFFFL);
+    }
+
+    long getHits() {
+        return this.hits;
+    }
+
+    long getMisses() {
+        return this.misses;
+    }
+
+    void resetCounters() {
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * @return number of entries
+     */
+    int getCapacity() {
+        return this.table.length / 2;
+    }
+}
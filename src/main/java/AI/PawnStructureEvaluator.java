@@ -0,0 +1,169 @@
+package AI;
+
+import Board.BitBoard;
+import Board.PieceSquareTables;
+import Pieces.Piece;
+import Players.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * adds pawn structure to another evaluation - doubled pawns (more pawns of a team on one column), isolated pawns
+ * (no own pawn on the neighbouring columns) and passed pawns (no enemy pawn in front of them on their column
+ * or the neighbouring ones, the closer to promotion the better)
+ *
+ * the score depends on the pawns only, so it is cached by the pawn key of the position in a PawnHashTable,
+ * the table is created for every thread the first time it evaluates, so threads never share one
+ */
+public class PawnStructureEvaluator implements Evaluator {
+
+    public static final int DEFAULT_KILOBYTES = 1024;
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    //by row of the pawn counted from its own side (1 is the starting row, 6 is one step before promotion),
+    //pawns never stand on rows 0 and 7
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    private static final long[] COLUMNS = new long[8];
+    private static final long[] NEIGHBOUR_COLUMNS = new long[8];
+    private static final long[][] PASSED_MASKS = new long[2][64];  //tiles in front of a pawn where enemy pawns stop it
+
+    static {
+        for (int column = 0; column < 8; column++) {
+            COLUMNS[column] = 0x0101010101010101L << column;
+        }
+        for (int column = 0; column < 8; column++) {
+            NEIGHBOUR_COLUMNS[column] = (column > 0 ? COLUMNS[column - 1] : 0) | (column < 7 ? COLUMNS[column + 1] : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            final long span = COLUMNS[square % 8] | NEIGHBOUR_COLUMNS[square % 8];
+            final int row = square / 8;
+            //white pawns move to row 0, black ones to row 7
+            PASSED_MASKS[Team.WHITE.ordinal()][square] = span & ((1L << (row * 8)) - 1);
+            PASSED_MASKS[Team.BLACK.ordinal()][square] = row == 7 ? 0 : span & (-1L << ((row + 1) * 8));
+        }
+    }
+
+    private final Evaluator base;
+    private final int kilobytes;
+    private final List<PawnHashTable> tables = new ArrayList();
+    private final ThreadLocal<PawnHashTable> table = new ThreadLocal<PawnHashTable>() {
+        @Override
+        protected PawnHashTable initialValue() {
+            final PawnHashTable table = new PawnHashTable(kilobytes);
+            synchronized (tables) {
+                tables.add(table);
+            }
+            return table;
+        }
+    };
+
+    /**
+     * @param base evaluation the pawn structure is added to
+     * @param kilobytes size of the pawn table of every thread
+     */
+    public PawnStructureEvaluator(Evaluator base, int kilobytes) {
+        //tables are created later by the searching threads, a wrong size is reported here
+        if (kilobytes > PawnHashTable.MAX_KILOBYTES) {
+            throw new IllegalArgumentException("Pawn hash table can have at most " + PawnHashTable.MAX_KILOBYTES + " kB, not " + kilobytes);
+        }
+        this.base = base;
+        this.kilobytes = kilobytes;
+    }
+
+    public int evaluate(BitBoard board) {
+        final PawnHashTable table = this.table.get();
+        final long pawnKey = board.getPawnKey();
+        int index = table.find(pawnKey);
+        if (index < 0) {
+            index = -index - 1;
+            final long white = board.getPieces(Team.WHITE.ordinal() * 6 + PAWN);
+            final long black = board.getPieces(Team.BLACK.ordinal() * 6 + PAWN);
+            table.store(index, pawnKey,
+                    midgame(white, black, Team.WHITE.ordinal()) - midgame(black, white, Team.BLACK.ordinal()),
+                    endgame(white, black, Team.WHITE.ordinal()) - endgame(black, white, Team.BLACK.ordinal()));
+        }
+        final int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        final int score = (table.getMidgame(index) * phase + table.getEndgame(index) * (PieceSquareTables.MAX_PHASE - phase))
+                / PieceSquareTables.MAX_PHASE;
+        return this.base.evaluate(board) + (board.getSideToMove() == Team.WHITE ? score : -score);
+    }
+
+    private static int midgame(long own, long enemy, int team) {
+        return score(own, enemy, team, DOUBLED_MIDGAME, ISOLATED_MIDGAME, PASSED_MIDGAME);
+    }
+
+    private static int endgame(long own, long enemy, int team) {
+        return score(own, enemy, team, DOUBLED_ENDGAME, ISOLATED_ENDGAME, PASSED_ENDGAME);
+    }
+
+    /**
+     * @param own pawns of the team
+     * @param enemy pawns of the other team
+     * @param team
+     * @return pawn structure score of the team
+     */
+    static int score(long own, long enemy, int team, int doubled, int isolated, int[] passed) {
+        int score = 0;
+        for (int column = 0; column < 8; column++) {
+            final int count = Long.bitCount(own & COLUMNS[column]);
+            if (count > 1) {
+                score += doubled * (count - 1);
+            }
+            if (count > 0 && (own & NEIGHBOUR_COLUMNS[column]) == 0) {
+                score += isolated * count;
+            }
+        }
+        long pawns = own;
+        while (pawns != 0) {
+            final int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            if ((PASSED_MASKS[team][square] & enemy) == 0) {
+                final int row = team == Team.WHITE.ordinal() ? 7 - square / 8 : square / 8;
+                score += passed[row];
+            }
+        }
+        return score;
+    }
+
+    /**
+     * @return lookups of all threads that found the pawn structure in the table
+     */
+    public long getHits() {
+        long hits = 0;
+        synchronized (this.tables) {
+            for (final PawnHashTable table : this.tables) {
+                hits += table.getHits();
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * @return lookups of all threads that had to score the pawn structure
+     */
+    public long getMisses() {
+        long misses = 0;
+        synchronized (this.tables) {
+            for (final PawnHashTable table : this.tables) {
+                misses += table.getMisses();
+            }
+        }
+        return misses;
+    }
+
+    public void resetCounters() {
+        synchronized (this.tables) {
+            for (final PawnHashTable table : this.tables) {
+                table.resetCounters();
+            }
+        }
+    }
+}
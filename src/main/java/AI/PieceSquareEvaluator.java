@@ -0,0 +1,22 @@
+package AI;
+
+import Board.BitBoard;
+import Board.PieceSquareTables;
+import Players.Team;
+
+/**
+ * material and piece placement from the piece-square tables, blended between the middlegame and the endgame
+ * by the material left on the board (tapered evaluation)
+ *
+ * the sums of the tables are kept by the board itself while moves are made and taken back,
+ * so scoring a position costs the same few operations however many pieces there are
+ */
+public class PieceSquareEvaluator implements Evaluator {
+
+    public int evaluate(BitBoard board) {
+        final int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        final int score = (board.getMidgameScore() * phase + board.getEndgameScore() * (PieceSquareTables.MAX_PHASE - phase))
+                / PieceSquareTables.MAX_PHASE;
+        return board.getSideToMove() == Team.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,76 @@
+package AI;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * state of a running search after one more finished iteration
+ */
+public final class SearchInfo {
+
+    private final int depth;
+    private final int score;
+    private final long nodes;
+    private final long millis;
+    private final List<String> principalVariation;
+
+    /**
+     * @param depth finished iteration
+     * @param score for the side to move, in centipawns
+     * @param nodes searched by all threads so far
+     * @param millis since the search started
+     * @param principalVariation moves the search expects to be played, in coordinate notation
+     */
+    SearchInfo(int depth, int score, long nodes, long millis, List<String> principalVariation) {
+        this.depth = depth;
+        this.score = score;
+        this.nodes = nodes;
+        this.millis = millis;
+        this.principalVariation = Collections.unmodifiableList(principalVariation);
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public int getScore() {
+        return this.score;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getMillis() {
+        return this.millis;
+    }
+
+    public long getNodesPerSecond() {
+        return this.nodes * 1000 / Math.max(1, this.millis);
+    }
+
+    public List<String> getPrincipalVariation() {
+        return this.principalVariation;
+    }
+
+    /**
+     * @return centipawns, or mate in moves (negative when the side to move is mated)
+     */
+    private String scoreToString() {
+        if (!Engine.isMateScore(this.score)) {
+            return String.valueOf(this.score);
+        }
+        final int moves = (Searcher.MATE - Math.abs(this.score) + 1) / 2;
+        return "mate " + (this.score > 0 ? moves : -moves);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (final String move : this.principalVariation) {
+            builder.append(' ').append(move);
+        }
+        return String.format("depth %d  score %s  nodes %,d  %,d nodes/s  pv%s", this.depth, scoreToString(),
+                this.nodes, getNodesPerSecond(), builder);
+    }
+}
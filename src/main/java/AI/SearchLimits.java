@@ -0,0 +1,142 @@
+package AI;
+
+/**
+ * how long the engine may search, built by the Builder - a fixed depth, a fixed time for the move,
+ * or the time left on the clock of the side to move (and the increment it gets after the move),
+ * the search stops at whichever limit comes first
+ */
+public class SearchLimits {
+
+    public static final int MAX_DEPTH = 60;
+    public static final long NO_TIME = -1;
+
+    private final int depth;
+    private final long moveTime;
+    private final long timeLeft;
+    private final long increment;
+    private final int movesToGo;
+
+    private SearchLimits(Builder builder) {
+        this.depth = builder.depth;
+        this.moveTime = builder.moveTime;
+        this.timeLeft = builder.timeLeft;
+        this.increment = builder.increment;
+        this.movesToGo = builder.movesToGo;
+    }
+
+    /**
+     * @param depth
+     * @return limits of a search to given depth, without any time limit
+     */
+    public static SearchLimits depth(int depth) {
+        return new Builder().setDepth(depth).build();
+    }
+
+    /**
+     * @param millis
+     * @return limits of a search that takes given time
+     */
+    public static SearchLimits moveTime(long millis) {
+        return new Builder().setMoveTime(millis).build();
+    }
+
+    /**
+     * @return maximal number of plies searched from the root
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return milliseconds for the move, NO_TIME if not limited this way
+     */
+    public long getMoveTime() {
+        return this.moveTime;
+    }
+
+    /**
+     * @return milliseconds left on the clock of the side to move, NO_TIME if it plays without clock
+     */
+    public long getTimeLeft() {
+        return this.timeLeft;
+    }
+
+    /**
+     * @return milliseconds added to the clock after every move
+     */
+    public long getIncrement() {
+        return this.increment;
+    }
+
+    /**
+     * @return moves to be played before the next time control, 0 if the time is for the rest of the game
+     */
+    public int getMovesToGo() {
+        return this.movesToGo;
+    }
+
+    public boolean isTimeLimited() {
+        return this.moveTime != NO_TIME || this.timeLeft != NO_TIME;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("depth " + this.depth);
+        if (this.moveTime != NO_TIME) {
+            builder.append(" movetime ").append(this.moveTime);
+        }
+        if (this.timeLeft != NO_TIME) {
+            builder.append(" time ").append(this.timeLeft).append(" inc ").append(this.increment);
+            if (this.movesToGo > 0) {
+                builder.append(" movestogo ").append(this.movesToGo);
+            }
+        }
+        return builder.toString();
+    }
+
+    public static class Builder {
+        private int depth;
+        private long moveTime;
+        private long timeLeft;
+        private long increment;
+        private int movesToGo;
+
+        public Builder() {
+            this.depth = MAX_DEPTH;
+            this.moveTime = NO_TIME;
+            this.timeLeft = NO_TIME;
+        }
+
+        public Builder setDepth(final int depth) {
+            if (depth < 1 || depth > MAX_DEPTH) {
+                throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH);
+            }
+            this.depth = depth;
+            return this;
+        }
+
+        public Builder setMoveTime(final long millis) {
+            this.moveTime = Math.max(0, millis);
+            return this;
+        }
+
+        public Builder setTimeLeft(final long millis) {
+            this.timeLeft = Math.max(0, millis);
+            return this;
+        }
+
+        public Builder setIncrement(final long millis) {
+            this.increment = Math.max(0, millis);
+            return this;
+        }
+
+        public Builder setMovesToGo(final int movesToGo) {
+            this.movesToGo = Math.max(0, movesToGo);
+            return this;
+        }
+
+        public SearchLimits build() {
+            return new SearchLimits(this);
+        }
+    }
+}
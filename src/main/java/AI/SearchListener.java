@@ -0,0 +1,12 @@
+package AI;
+
+/**
+ * gets the progress of a search, called from the searching thread
+ */
+public interface SearchListener {
+
+    /**
+     * @param info state of the search after a finished iteration
+     */
+    void iterationFinished(SearchInfo info);
+}
@@ -0,0 +1,79 @@
+package AI;
+
+import Board.Board;
+import Moves.Move;
+import Perft.Perft;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+/**
+ * searches the same position to the same depth with 1, 2, 4... threads and reports how the parallel search scales -
+ * nodes per second show how much work the threads do together, time to depth how much sooner the move is known
+ * (lazy SMP threads search many nodes twice, so time to depth falls slower than nodes per second grow)
+ *
+ * usage:
+ *  SearchScaling std|boardFile depth [maxThreads] [hashMB]
+ */
+public class SearchScaling {
+
+    SearchScaling() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    /**
+     * @param board
+     * @param depth
+     * @param maxThreads
+     * @param hashMegabytes
+     * @param out
+     */
+    public static void run(Board board, int depth, int maxThreads, int hashMegabytes, PrintStream out) {
+        final SearchLimits limits = SearchLimits.depth(depth);
+        //one search first, so the time with one thread doesn't include compiling the hot code
+        final Engine warmUp = new Engine(new PawnStructureEvaluator(new PieceSquareEvaluator(), PawnStructureEvaluator.DEFAULT_KILOBYTES), hashMegabytes, 1);
+        warmUp.chooseMove(board, SearchLimits.depth(Math.max(1, depth - 1)));
+        warmUp.shutdown();
+
+        double singleThreadTime = 0;
+        double singleThreadSpeed = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            //every run starts with an empty table
+            final Engine engine = new Engine(new PawnStructureEvaluator(new PieceSquareEvaluator(), PawnStructureEvaluator.DEFAULT_KILOBYTES), hashMegabytes, threads);
+            final long start = System.nanoTime();
+            final Move move = engine.chooseMove(board, limits);
+            final double time = (System.nanoTime() - start) / 1e9;
+            engine.shutdown();
+
+            final double speed = engine.getNodes() / time;
+            if (threads == 1) {
+                singleThreadTime = time;
+                singleThreadSpeed = speed;
+            }
+            out.println(String.format("threads %3d  move %-6s score %6d  nodes %,13d  time %8.3f s  %,12.0f nodes/s  nps x%5.2f  time to depth x%5.2f",
+                    threads, move, engine.getScore(), engine.getNodes(), time, speed, speed / singleThreadSpeed, singleThreadTime / time));
+        }
+    }
+
+    /**
+     * powers of two, the last step is maxThreads itself
+     */
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: SearchScaling std|boardFile depth [maxThreads] [hashMB]");
+            System.exit(2);
+        }
+        final Board board = Perft.loadBoard(args[0]);
+        final int depth = Integer.parseInt(args[1]);
+        final int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        final int hashMegabytes = args.length > 3 ? Integer.parseInt(args[3]) : TranspositionTable.DEFAULT_MEGABYTES;
+        run(board, depth, maxThreads, hashMegabytes, System.err);
+    }
+}
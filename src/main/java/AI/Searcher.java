@@ -0,0 +1,353 @@
+package AI;
+
+import Board.BitBoard;
+import Endgame.KPKBitbase;
+import Moves.LegalMoveGenerator;
+import Moves.MoveList;
+import Moves.PackedMove;
+
+/**
+ * negamax alpha-beta search of one thread - it has its own copy of the position, moves are made and taken back
+ * on it, so no boards are created during the search
+ *
+ * the root is searched by iterative deepening - depth 1, 2, 3... until the time manager says stop, the best move
+ * of every iteration is searched first in the next one; an iteration stopped in the middle is thrown away and the
+ * result of the last finished one is kept
+ *
+ * with more threads (lazy SMP) every thread has its own searcher of the same root and all share the transposition
+ * table - searcher 0 is the main one, helpers skip some depths so that the threads are at different depths at
+ * the same time and fill the table with results the others can use
+ */
+class Searcher {
+
+    static final int INFINITY = 32000;
+    static final int MATE = 31000;               //score of being mated at the root, mates closer to the root score more
+    static final int MAX_PLY = SearchLimits.MAX_DEPTH + 4;
+    private static final int CHECK_EVERY = 2048;   //nodes between two looks at the clock, a power of two
+    private static final int KPK_WIN = 400;        //won king and pawn ending, less than promoting gains so the pawn still goes on
+
+    //helper i searches a depth only if ((depth + SKIP_PHASE[j]) / SKIP_SIZE[j]) is even, where j = (i - 1) % 20
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    private final BitBoard board;
+    private final Evaluator evaluator;
+    private final TimeManager timer;
+    private final TranspositionTable table;
+    private final KPKBitbase bitbase;
+    private final int id;
+    private final MoveList[] moves = MoveList.perPly(MAX_PLY);
+    private final MoveList rootMoves = new MoveList();
+    private final MoveOrdering ordering = new MoveOrdering(MAX_PLY);
+    private long nodes;
+    private boolean aborted;
+
+    private int bestMove;
+    private int score;
+    private int completedDepth;
+
+    /**
+     * @param board position searched by this searcher only
+     * @param evaluator
+     * @param timer shared by all threads of the search
+     * @param table shared by all threads of the search
+     * @param id 0 for the main searcher, 1, 2... for helpers
+     */
+    Searcher(BitBoard board, Evaluator evaluator, TimeManager timer, TranspositionTable table, int id) {
+        this.board = board;
+        this.evaluator = evaluator;
+        this.timer = timer;
+        this.table = table;
+        this.id = id;
+        this.bitbase = KPKBitbase.getInstance();
+    }
+
+    /**
+     * searches deeper and deeper until given depth, the time manager or a found mate stops it
+     * @param maxDepth
+     * @param timeLimited when there is only one legal move, it is played at once
+     * @param iterationFinished run after every finished iteration, may be null
+     */
+    void think(int maxDepth, boolean timeLimited, Runnable iterationFinished) {
+        this.bestMove = PackedMove.NONE;
+        this.completedDepth = 0;
+        this.rootMoves.clear();
+        LegalMoveGenerator.generateLegal(this.board, this.rootMoves);
+        if (this.rootMoves.isEmpty()) {
+            this.score = this.board.isInCheck() ? -MATE : 0;
+            return;
+        }
+        //the first iteration gets root moves ordered like any other node, later the best one is moved to the front
+        this.ordering.newSearch();
+        this.ordering.score(this.rootMoves, 0, PackedMove.NONE);
+        for (int i = 0; i < this.rootMoves.size(); i++) {
+            this.ordering.pickNext(this.rootMoves, 0, i);
+        }
+        this.bestMove = this.rootMoves.get(0);
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            if (skipDepth(depth)) {
+                continue;
+            }
+            final int rootBest = searchRoot(depth);
+            if (this.aborted) {
+                break;
+            }
+            this.bestMove = rootBest;
+            this.completedDepth = depth;
+            if (iterationFinished != null) {
+                iterationFinished.run();
+            }
+            if (timeLimited && this.rootMoves.size() == 1) {
+                break;
+            }
+            //a mate closer than the searched depth can't be improved by searching deeper
+            if (Math.abs(this.score) >= MATE - depth) {
+                break;
+            }
+            if (this.timer.optimumReached()) {
+                break;
+            }
+        }
+    }
+
+    private boolean skipDepth(int depth) {
+        if (this.id == 0) {
+            return false;
+        }
+        final int i = (this.id - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 != 0;
+    }
+
+    /**
+     * searches all root moves, the best one is moved to the front of the root moves for the next iteration
+     * @param depth
+     * @return best root move, the score is stored in score
+     */
+    private int searchRoot(int depth) {
+        int alpha = -INFINITY;
+        int best = 0;
+        for (int i = 0; i < this.rootMoves.size(); i++) {
+            this.board.makeMove(this.rootMoves.get(i));
+            final int score = -search(depth - 1, 1, -INFINITY, -alpha);
+            this.board.unmakeMove();
+            if (this.aborted) {
+                return PackedMove.NONE;
+            }
+            if (score > alpha) {
+                alpha = score;
+                best = i;
+            }
+        }
+        final int bestMove = this.rootMoves.get(best);
+        for (int i = best; i > 0; i--) {
+            this.rootMoves.swap(i, i - 1);
+        }
+        this.score = alpha;
+        this.table.store(this.board.getZobristKey(), depth, TranspositionTable.EXACT, TranspositionTable.toTable(alpha, 0), bestMove);
+        return bestMove;
+    }
+
+    /**
+     * @param depth remaining plies
+     * @param ply plies from the root
+     * @param alpha score the side to move is already sure of
+     * @param beta score the opponent is already sure of, a better line for the side to move won't be allowed
+     * @return score of the position for the side to move, alpha if nothing is better, at least beta on a cutoff
+     */
+    private int search(int depth, int ply, int alpha, int beta) {
+        if (depth <= 0) {
+            return quiesce(ply, alpha, beta);
+        }
+        this.nodes++;
+        //the first iteration of the main searcher always finishes, so there is a move to play
+        if ((this.nodes & (CHECK_EVERY - 1)) == 0 && (this.completedDepth > 0 || this.id > 0) && this.timer.maximumReached()) {
+            this.aborted = true;
+        }
+        if (this.aborted) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+        //king and pawn against king is looked up, a drawn one needs no search
+        if (KPKBitbase.isKPK(this.board) && this.bitbase.probe(this.board) == KPKBitbase.DRAW) {
+            return 0;
+        }
+
+        //a position searched before (by another move order or another thread) to at least this depth needs no search
+        final long key = this.board.getZobristKey();
+        final long entry = this.table.probe(key);
+        int tableMove = PackedMove.NONE;
+        if (entry != 0) {
+            tableMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= depth) {
+                final int score = TranspositionTable.fromTable(TranspositionTable.getScore(entry), ply);
+                final int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || bound == TranspositionTable.LOWER && score >= beta
+                        || bound == TranspositionTable.UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        final MoveList list = this.moves[ply];
+        list.clear();
+        LegalMoveGenerator.generateLegal(this.board, list);
+        if (list.isEmpty()) {
+            //mated or stalemated
+            return this.board.isInCheck() ? -MATE + ply : 0;
+        }
+        //only a move found in the list is played, so a colliding key can't make the search play garbage
+        this.ordering.score(list, ply, tableMove);
+
+        final int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < list.size(); i++) {
+            final int move = this.ordering.pickNext(list, ply, i);
+            this.board.makeMove(move);
+            final int score = -search(depth - 1, ply + 1, -beta, -alpha);
+            this.board.unmakeMove();
+            if (this.aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                    if (alpha >= beta) {
+                        this.ordering.cutoff(list, i, ply, depth);
+                        break;
+                    }
+                }
+            }
+        }
+
+        final int bound = best >= beta ? TranspositionTable.LOWER : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        this.table.store(key, depth, bound, TranspositionTable.toTable(best, ply), bestMove);
+        return best;
+    }
+
+    /**
+     * quiescence search - at the end of the searched depth the position is scored only when it is quiet,
+     * captures and promotions are played out first, so the evaluation never sees half of an exchange;
+     * the side to move may also stop capturing (stand pat) and keep the score of the position,
+     * captures losing material by static exchange evaluation are not searched at all;
+     * in check every evasion is searched, standing pat is not possible there
+     * @param ply plies from the root
+     * @param alpha
+     * @param beta
+     * @return score of the position for the side to move
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        this.nodes++;
+        if ((this.nodes & (CHECK_EVERY - 1)) == 0 && (this.completedDepth > 0 || this.id > 0) && this.timer.maximumReached()) {
+            this.aborted = true;
+        }
+        if (this.aborted) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+
+        final boolean inCheck = this.board.isInCheck();
+        final MoveList list = this.moves[ply];
+        list.clear();
+        int best;
+        if (inCheck) {
+            LegalMoveGenerator.generateLegal(this.board, list);
+            if (list.isEmpty()) {
+                return -MATE + ply;
+            }
+            best = -INFINITY;
+        } else {
+            best = evaluate();
+            if (best >= beta) {
+                return best;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+            LegalMoveGenerator.generateLegalCaptures(this.board, list);
+        }
+
+        this.ordering.score(list, ply, PackedMove.NONE);
+        for (int i = 0; i < list.size(); i++) {
+            final int move = this.ordering.pickNext(list, ply, i);
+            if (!inCheck && isLosingCapture(move)) {
+                continue;
+            }
+            this.board.makeMove(move);
+            final int score = -quiesce(ply + 1, -beta, -alpha);
+            this.board.unmakeMove();
+            if (this.aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * score of the position by the evaluator, king and pawn against king by the bitbase
+     */
+    private int evaluate() {
+        final int score = this.evaluator.evaluate(this.board);
+        if (!KPKBitbase.isKPK(this.board)) {
+            return score;
+        }
+        final int result = this.bitbase.probe(this.board);
+        return result == KPKBitbase.DRAW ? 0 : score + result * KPK_WIN;
+    }
+
+    /**
+     * capture of a piece worth at least the capturing one can't lose material, only the others need exchange evaluation
+     */
+    private boolean isLosingCapture(int move) {
+        if (PackedMove.isPromotion(move)) {
+            return false;
+        }
+        final int attacker = MaterialEvaluator.PIECE_VALUES[PackedMove.getPiece(move) % 6];
+        final int victim = MaterialEvaluator.PIECE_VALUES[PackedMove.getCaptured(move) % 6];
+        return victim < attacker && StaticExchange.evaluate(this.board, move) < 0;
+    }
+
+    long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * @return best root move of the last finished iteration, PackedMove.NONE if there is no legal move
+     */
+    int getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * @return score of the best move for the side to move
+     */
+    int getScore() {
+        return this.score;
+    }
+
+    /**
+     * @return depth of the last finished iteration
+     */
+    int getCompletedDepth() {
+        return this.completedDepth;
+    }
+}
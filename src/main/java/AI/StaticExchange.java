@@ -0,0 +1,105 @@
+package AI;
+
+import Board.BitBoard;
+import Moves.PackedMove;
+import Pieces.Piece;
+import Players.Team;
+
+/**
+ * static exchange evaluation - the material one side wins by a capture when both sides then keep capturing on the
+ * target tile with their least valuable piece and either side may stop when it would lose by going on
+ *
+ * nothing is played, the exchange is counted on the occupancy only: the capturing piece leaves it, and attackers are
+ * looked up again, so a rook or bishop standing behind the piece that captured (x-ray) joins the exchange
+ */
+final class StaticExchange {
+
+    StaticExchange() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    //piece values by piece type ordinal, the king is worth more than anything it could capture
+    private static final int[] VALUES = new int[6];
+
+    //attackers are tried from the least valuable
+    private static final int[] ORDER = {
+            Piece.PieceType.PAWN.ordinal(), Piece.PieceType.KNIGHT.ordinal(), Piece.PieceType.BISHOP.ordinal(),
+            Piece.PieceType.ROOK.ordinal(), Piece.PieceType.QUEEN.ordinal(), Piece.PieceType.KING.ordinal()};
+
+    static {
+        for (int type = 0; type < 6; type++) {
+            VALUES[type] = MaterialEvaluator.PIECE_VALUES[type];
+        }
+        VALUES[KING] = 20000;
+    }
+
+    /**
+     * @param board position the move is played in
+     * @param move capture or promotion of the side to move
+     * @return material the side to move wins (negative - loses) by the move and the exchange after it
+     */
+    static int evaluate(BitBoard board, int move) {
+        final int from = PackedMove.getFrom(move);
+        final int to = PackedMove.getTo(move);
+        final int[] gain = new int[32];
+        int depth = 0;
+
+        long occupied = board.getOccupancy() & ~(1L << from);
+        int onTarget = PackedMove.getPiece(move) % 6;   //type of the piece standing on the target tile
+        if (PackedMove.isCapture(move)) {
+            gain[0] = VALUES[PackedMove.getCaptured(move) % 6];
+        }
+        if (PackedMove.isEnPassant(move)) {
+            occupied &= ~(1L << (to + (PackedMove.getPiece(move) / 6 == 0 ? 8 : -8)));
+        }
+        if (PackedMove.isPromotion(move)) {
+            onTarget = PackedMove.getPromotion(move);
+            gain[0] += VALUES[onTarget] - VALUES[PAWN];
+        }
+
+        int side = 1 - PackedMove.getPiece(move) / 6;
+        long attackers = attackers(board, to, occupied);
+        while (true) {
+            final long own = attackers & board.getOccupancy(side);
+            if (own == 0) {
+                break;
+            }
+            int type = -1;
+            long attacker = 0;
+            for (int i = 0; i < ORDER.length && attacker == 0; i++) {
+                type = ORDER[i];
+                attacker = own & board.getPieces(side * 6 + type);
+            }
+            //the king can't capture a defended piece
+            if (type == KING && (attackers & board.getOccupancy(1 - side)) != 0) {
+                break;
+            }
+            depth++;
+            gain[depth] = VALUES[onTarget] - gain[depth - 1];
+            //the side that captured now loses even if it is not recaptured, nobody would go on
+            if (Math.max(-gain[depth - 1], gain[depth]) < 0) {
+                break;
+            }
+            onTarget = type;
+            occupied &= ~(attacker & -attacker);
+            attackers = attackers(board, to, occupied);
+            side = 1 - side;
+        }
+        //every side either captures or stops, whichever is better for it
+        while (depth > 0) {
+            gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+            depth--;
+        }
+        return gain[0];
+    }
+
+    /**
+     * @return pieces of both teams attacking the tile, only pieces still on the board
+     */
+    private static long attackers(BitBoard board, int square, long occupied) {
+        return (board.attackersOf(square, Team.WHITE.ordinal(), occupied) | board.attackersOf(square, Team.BLACK.ordinal(), occupied)) & occupied;
+    }
+}
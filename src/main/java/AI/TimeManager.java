@@ -0,0 +1,94 @@
+package AI;
+
+/**
+ * decides how long one search may take and tells the searching threads when to stop
+ *
+ * the budget has two parts - the optimum time, after which no new iteration of iterative deepening is started
+ * (it would take a few times longer than the last one and most likely not finish), and the maximum time,
+ * when a running iteration is abandoned; with the clock the maximum never reaches the time left minus a reserve
+ * for making the move, so the computer never loses on time
+ */
+class TimeManager {
+
+    static final long MOVE_OVERHEAD = 50;    //milliseconds for playing the move and redrawing the board
+    static final int DEFAULT_MOVES_TO_GO = 40;
+    private static final int MAXIMUM_RATIO = 4;  //at most this many optimum times for a single move
+
+    private final long start;
+    private final long optimum;
+    private final long maximum;
+    private volatile boolean stopped;
+
+    /**
+     * @param limits
+     */
+    TimeManager(SearchLimits limits) {
+        this.start = System.currentTimeMillis();
+        if (limits.getMoveTime() != SearchLimits.NO_TIME) {
+            this.optimum = Math.max(0, limits.getMoveTime() - MOVE_OVERHEAD);
+            this.maximum = this.optimum;
+        } else if (limits.getTimeLeft() != SearchLimits.NO_TIME) {
+            final long timeLeft = limits.getTimeLeft();
+            final long reserve = Math.max(0, timeLeft - MOVE_OVERHEAD);
+            final int movesToGo = limits.getMovesToGo() > 0 ? limits.getMovesToGo() : DEFAULT_MOVES_TO_GO;
+            //the increment comes back after every move, so most of it can be spent now
+            final long optimum = timeLeft / movesToGo + limits.getIncrement() * 3 / 4;
+            this.optimum = Math.min(optimum, reserve);
+            //with the last moves before the time control the whole reserve can be used, otherwise a part of it
+            final long cap = movesToGo == 1 ? reserve : reserve / 2;
+            this.maximum = Math.max(this.optimum, Math.min(optimum * MAXIMUM_RATIO, cap));
+        } else {
+            this.optimum = Long.MAX_VALUE;
+            this.maximum = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @return milliseconds since the search started
+     */
+    long elapsed() {
+        return System.currentTimeMillis() - this.start;
+    }
+
+    /**
+     * called after every finished iteration
+     * @return true if the next iteration should not be started
+     */
+    boolean optimumReached() {
+        //the next iteration takes a few times longer, if half of the optimum is gone it would end after it
+        return this.stopped || this.optimum != Long.MAX_VALUE && elapsed() >= this.optimum / 2;
+    }
+
+    /**
+     * checked by the searching threads every few thousand nodes
+     * @return true if the running iteration must be abandoned
+     */
+    boolean maximumReached() {
+        if (this.stopped) {
+            return true;
+        }
+        if (this.maximum != Long.MAX_VALUE && elapsed() >= this.maximum) {
+            this.stopped = true;
+        }
+        return this.stopped;
+    }
+
+    /**
+     * stops the search from another thread, the best move of the last finished iteration is played
+     */
+    void stop() {
+        this.stopped = true;
+    }
+
+    boolean isStopped() {
+        return this.stopped;
+    }
+
+    long getOptimum() {
+        return this.optimum;
+    }
+
+    long getMaximum() {
+        return this.maximum;
+    }
+}
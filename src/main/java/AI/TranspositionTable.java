@@ -0,0 +1,200 @@
+package AI;
+
+import java.util.Arrays;
+
+/**
+ * fixed-size table of searched positions (depth, bound, score and best move by zobrist key) shared by all search
+ * threads without any locks
+ *
+ * every entry is two longs - the key xored with the data and the data, a reader accepts an entry only if the xor of
+ * both longs gives its key, so an entry half-written by another thread is simply a miss; entries are grouped into
+ * buckets of four (one cache line), a new entry replaces the same position, an empty entry, or the least valuable one -
+ * left from older searches and shallow
+ *
+ * data bits:
+ *  0-25   best move (PackedMove), 0 if none
+ *  26-41  score + 32768
+ *  42-49  depth
+ *  50-51  bound
+ *  52-57  generation (search that stored it)
+ */
+public class TranspositionTable {
+
+    public static final int DEFAULT_MEGABYTES = 64;
+    public static final int MAX_MEGABYTES = 8192;   //the table is one array, it can't have 2^31 longs
+
+    public static final int EXACT = 1;          //score is the exact score of the position
+    public static final int LOWER = 2;          //search failed high, the score is at least this
+    public static final int UPPER = 3;          //search failed low, the score is at most this
+
+    private static final int ENTRIES_PER_BUCKET = 4;
+    private static final int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * 2;
+
+    private static final int MOVE_BITS = 26;
+    private static final int SCORE_SHIFT = 26;
+    private static final int DEPTH_SHIFT = 42;
+    private static final int BOUND_SHIFT = 50;
+    private static final int GENERATION_SHIFT = 52;
+    private static final int GENERATION_MASK = 63;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation;
+
+    /**
+     * @param megabytes size of the table, rounded down to a power of two number of buckets, at most MAX_MEGABYTES
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Transposition table can have at most " + MAX_MEGABYTES + " MB, not " + megabytes);
+        }
+        final long bytes = Math.max(1L, megabytes) * 1024 * 1024;
+        final long buckets = Long.highestOneBit(bytes / (LONGS_PER_BUCKET * 8));
+        this.table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * @param key zobrist key of the position
+     * @return data of the entry of the position (see getters), 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        final int index = bucketIndex(key);
+        for (int i = index; i < index + LONGS_PER_BUCKET; i += 2) {
+            final long data = this.table[i + 1];
+            if (data != 0 && (this.table[i] ^ data) == key) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param key zobrist key of the position
+     * @param depth searched depth
+     * @param bound EXACT, LOWER or UPPER
+     * @param score score adjusted by toTable
+     * @param move best move, 0 if none
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        final int index = bucketIndex(key);
+        final int generation = this.generation;
+        int replace = index;
+        int replaceValue = Integer.MAX_VALUE;
+        for (int i = index; i < index + LONGS_PER_BUCKET; i += 2) {
+            final long data = this.table[i + 1];
+            if (data == 0 || (this.table[i] ^ data) == key) {
+                //the best move of a shallower search of the same position is better than none
+                if (move == 0 && data != 0) {
+                    move = getMove(data);
+                }
+                replace = i;
+                break;
+            }
+            //entries of older searches are worth less than a few plies of depth
+            final int age = (generation - getGeneration(data)) & GENERATION_MASK;
+            final int value = getDepth(data) - 8 * age;
+            if (value < replaceValue) {
+                replaceValue = value;
+                replace = i;
+            }
+        }
+        final long data = (move & ((1L << MOVE_BITS) - 1))
+                | (long) (score + 32768) << SCORE_SHIFT
+                | (long) Math.max(0, depth) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) generation << GENERATION_SHIFT;
+        this.table[replace + 1] = data;
+        this.table[replace] = key ^ data;
+    }
+
+    /**
+     * called before every search, entries of previous searches become easier to replace
+     */
+    public void newSearch() {
+        this.generation = (this.generation + 1) & GENERATION_MASK;
+    }
+
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.generation = 0;
+    }
+
+    /**
+     * @return number of entries in the table
+     */
+    public int getCapacity() {
+        return this.table.length / 2;
+    }
+
+    /**
+     * @return permille of entries (in a sample) stored by the current search
+     */
+    public int getFullness() {
+        int used = 0;
+        final int sample = Math.min(1000, getCapacity());
+        for (int i = 0; i < sample; i++) {
+            final long data = this.table[2 * i + 1];
+            if (data != 0 && getGeneration(data) == this.generation) {
+                used++;
+            }
+        }
+        return used * 1000 / sample;
+    }
+
+    public static int getMove(long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+    public static int getScore(long data) {
+        return (int) ((data >>> SCORE_SHIFT) & 0xFFFF) - 32768;
+    }
+
+    public static int getDepth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int getBound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 3);
+    }
+
+    private static int getGeneration(long data) {
+        return (int) ((data >>> GENERATION_SHIFT) & GENERATION_MASK);
+    }
+
+    /**
+     * mate scores are stored as distance from the stored position, not from the root, so they stay right when
+     * the position is found at another ply
+     * @param score score relative to the root
+     * @param ply plies from the root
+     * @return score to store
+     */
+    static int toTable(int score, int ply) {
+        if (score > Searcher.MATE - Searcher.MAX_PLY) {
+            return score + ply;
+        }
+        if (score < -Searcher.MATE + Searcher.MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * @param score stored score
+     * @param ply plies from the root
+     * @return score relative to the root
+     */
+    static int fromTable(int score, int ply) {
+        if (score > Searcher.MATE - Searcher.MAX_PLY) {
+            return score - ply;
+        }
+        if (score < -Searcher.MATE + Searcher.MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key >>> 32) & this.bucketMask) * LONGS_PER_BUCKET;
+    }
+}
@@ -0,0 +1,580 @@
+package Board;
+
+import Moves.Move;
+import Moves.PackedMove;
+import Pieces.*;
+import Players.Team;
+
+import java.util.Arrays;
+
+/**
+ * position represented by 64-bit bitboards - one long for every piece type of every team plus occupancy masks,
+ * bit i of every mask stands for the tile with coordinate i (same indexing as Board, 0 = a8, 63 = h1)
+ *
+ * unlike Board the position is mutable - makeMove changes only the tiles the move touches and remembers
+ * what it needs in a small undo record, unmakeMove takes the move back
+ */
+public class BitBoard {
+
+    public static final int WHITE_KING_SIDE = 1;    //castling rights, stored as bit flags
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    public static final int NO_SQUARE = -1;
+    public static final int NO_PIECE = -1;
+
+    private static final int[] CASTLING_MASKS = castlingMasks(); //rights that stay after a move from or to given tile
+
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+    private static final Team[] TEAMS = Team.values();
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    final long[] pieces;          //indexed by pieceIndex(team, pieceType)
+    final long[] teamOccupancy;   //indexed by team ordinal
+    long occupied;
+    final int[] mailbox;          //piece index on every tile, NO_PIECE for empty tiles
+
+    Team sideToMove;
+    int castlingRights;
+    int enPassantSquare;
+    long zobristKey;
+    long pawnKey;                 //zobrist key of pawns only, for the pawn structure cache
+    int midgame;                  //piece-square sums for white minus black, kept up to date like the key
+    int endgame;
+    int phase;
+
+    private Undo[] history;
+    private int ply;
+
+    BitBoard() {
+        this.pieces = new long[12];
+        this.teamOccupancy = new long[2];
+        this.mailbox = new int[64];
+        Arrays.fill(this.mailbox, NO_PIECE);
+        this.sideToMove = Team.WHITE;
+        this.enPassantSquare = NO_SQUARE;
+        this.history = new Undo[64];
+    }
+
+    /**
+     * copy of the position, history of made moves is not copied so the copy can't unmake them
+     * @param other
+     */
+    public BitBoard(BitBoard other) {
+        this.pieces = other.pieces.clone();
+        this.teamOccupancy = other.teamOccupancy.clone();
+        this.occupied = other.occupied;
+        this.mailbox = other.mailbox.clone();
+        this.history = new Undo[64];
+        this.sideToMove = other.sideToMove;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.zobristKey = other.zobristKey;
+        this.pawnKey = other.pawnKey;
+        this.midgame = other.midgame;
+        this.endgame = other.endgame;
+        this.phase = other.phase;
+    }
+
+    /**
+     * index of the bitboard holding given pieces - white pieces first, then black ones
+     * @param team
+     * @param pieceType
+     * @return
+     */
+    public static int pieceIndex(Team team, Piece.PieceType pieceType) {
+        return team.ordinal() * 6 + pieceType.ordinal();
+    }
+
+    /**
+     * converts the tile based board to bitboards
+     * @param board
+     * @return
+     */
+    public static BitBoard fromBoard(Board board) {
+        return fromBoard(board, board.currentPlayer().getTeam(), board.getEnPassantPawn());
+    }
+
+    /**
+     * used by the board itself, before its players exist
+     * @param board
+     * @param sideToMove
+     * @param enPassantPawn pawn that has just jumped, null if there is none
+     * @return
+     */
+    static BitBoard fromBoard(Board board, Team sideToMove, Pawn enPassantPawn) {
+        final BitBoard bitBoard = new BitBoard();
+        for (int i = 0; i < 64; i++) {
+            final Tile tile = board.getTile(i);
+            if (!tile.empty()) {
+                final Piece piece = tile.getPiece();
+                bitBoard.setPiece(i, piece.getPieceTeam(), piece.getPieceType());
+            }
+        }
+        bitBoard.sideToMove = sideToMove;
+        bitBoard.castlingRights = castlingRights(board);
+        if (enPassantPawn != null) {
+            final int jumpedOver = enPassantPawn.getPiecePosition() - enPassantPawn.getPieceTeam().getDirection() * 8;
+            if (bitBoard.canCaptureEnPassant(jumpedOver, enPassantPawn.getPieceTeam().ordinal())) {
+                bitBoard.enPassantSquare = jumpedOver;
+            }
+        }
+        //pieces are already in the key, see putPiece
+        bitBoard.zobristKey ^= Zobrist.castlingKey(bitBoard.castlingRights) ^ Zobrist.enPassantKey(bitBoard.enPassantSquare);
+        if (sideToMove.isWhite()) {
+            bitBoard.zobristKey ^= Zobrist.turnKey();
+        }
+        return bitBoard;
+    }
+
+    /**
+     * board does not store castling rights, king and rook that haven't moved yet on their starting tiles mean
+     * the castle is still possible
+     * @param board
+     * @return
+     */
+    private static int castlingRights(Board board) {
+        int rights = 0;
+        if (unmoved(board, 60, Team.WHITE, Piece.PieceType.KING)) {
+            if (unmoved(board, 63, Team.WHITE, Piece.PieceType.ROOK)) { rights |= WHITE_KING_SIDE; }
+            if (unmoved(board, 56, Team.WHITE, Piece.PieceType.ROOK)) { rights |= WHITE_QUEEN_SIDE; }
+        }
+        if (unmoved(board, 4, Team.BLACK, Piece.PieceType.KING)) {
+            if (unmoved(board, 7, Team.BLACK, Piece.PieceType.ROOK)) { rights |= BLACK_KING_SIDE; }
+            if (unmoved(board, 0, Team.BLACK, Piece.PieceType.ROOK)) { rights |= BLACK_QUEEN_SIDE; }
+        }
+        return rights;
+    }
+
+    private static boolean unmoved(Board board, int coord, Team team, Piece.PieceType pieceType) {
+        final Piece piece = board.getTile(coord).getPiece();
+        return piece != null && piece.getPieceTeam() == team && piece.getPieceType() == pieceType && piece.firstMove();
+    }
+
+    /**
+     * converts bitboards back to the tile based board, so it can be used by the rest of the game
+     * @return
+     */
+    public Board toBoard() {
+        final Board.Builder builder = new Board.Builder();
+        for (int i = 0; i < 12; i++) {
+            long bits = this.pieces[i];
+            while (bits != 0) {
+                final int square = Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                builder.setPiece(createPiece(square, TEAMS[i / 6], PIECE_TYPES[i % 6]));
+            }
+        }
+        builder.setMoveMaker(this.sideToMove);
+        if (this.enPassantSquare != NO_SQUARE) {
+            final Team jumped = this.sideToMove.getOpponent();
+            builder.setEnPassantPawn(new Pawn(this.enPassantSquare + jumped.getDirection() * 8, jumped, false));
+        }
+        return builder.build();
+    }
+
+    private Piece createPiece(int square, Team team, Piece.PieceType pieceType) {
+        switch (pieceType) {
+            case PAWN:
+                return new Pawn(square, team);
+            case KNIGHT:
+                return new Knight(square, team);
+            case BISHOP:
+                return new Bishop(square, team);
+            case ROOK:
+                return new Rook(square, team, isCastlingRook(square, team));
+            case QUEEN:
+                return new Queen(square, team);
+            default:
+                final int rights = team.isWhite() ? WHITE_KING_SIDE | WHITE_QUEEN_SIDE : BLACK_KING_SIDE | BLACK_QUEEN_SIDE;
+                return new King(square, team, (this.castlingRights & rights) != 0);
+        }
+    }
+
+    private boolean isCastlingRook(int square, Team team) {
+        if (team.isWhite()) {
+            return (square == 63 && (this.castlingRights & WHITE_KING_SIDE) != 0) ||
+                    (square == 56 && (this.castlingRights & WHITE_QUEEN_SIDE) != 0);
+        }
+        return (square == 7 && (this.castlingRights & BLACK_KING_SIDE) != 0) ||
+                (square == 0 && (this.castlingRights & BLACK_QUEEN_SIDE) != 0);
+    }
+
+    void setPiece(int square, Team team, Piece.PieceType pieceType) {
+        putPiece(square, pieceIndex(team, pieceType));
+    }
+
+    private void putPiece(int square, int piece) {
+        final long bit = 1L << square;
+        this.pieces[piece] |= bit;
+        this.teamOccupancy[piece / 6] |= bit;
+        this.occupied |= bit;
+        this.mailbox[square] = piece;
+        this.zobristKey ^= Zobrist.pieceKey(piece, square);
+        if (piece % 6 == PAWN) {
+            this.pawnKey ^= Zobrist.pieceKey(piece, square);
+        }
+        this.midgame += PieceSquareTables.midgame(piece, square);
+        this.endgame += PieceSquareTables.endgame(piece, square);
+        this.phase += PieceSquareTables.phase(piece);
+    }
+
+    private void removePiece(int square, int piece) {
+        final long bit = ~(1L << square);
+        this.pieces[piece] &= bit;
+        this.teamOccupancy[piece / 6] &= bit;
+        this.occupied &= bit;
+        this.mailbox[square] = NO_PIECE;
+        this.zobristKey ^= Zobrist.pieceKey(piece, square);
+        if (piece % 6 == PAWN) {
+            this.pawnKey ^= Zobrist.pieceKey(piece, square);
+        }
+        this.midgame -= PieceSquareTables.midgame(piece, square);
+        this.endgame -= PieceSquareTables.endgame(piece, square);
+        this.phase -= PieceSquareTables.phase(piece);
+    }
+
+    /**
+     * makes move of the legacy move classes, castles, en passant and promotions are recognized by the move itself
+     * @param move
+     */
+    public void makeMove(Move move) {
+        if (move.getMovedPiece() == null) {
+            throw new RuntimeException("Null move is not executable");
+        }
+        makeMove(move.getMovedPiece().getPiecePosition(), move.getNewCoord(),
+                move instanceof Move.PawnPromotion ? ((Move.PawnPromotion) move).getPromotionType() : null,
+                move instanceof Move.PawnEnPassantMove);
+    }
+
+    /**
+     * makes packed move (see PackedMove) generated for this position
+     * @param move
+     */
+    public void makeMove(int move) {
+        makeMove(PackedMove.getFrom(move), PackedMove.getTo(move), PackedMove.getPromotionType(move), PackedMove.isEnPassant(move));
+    }
+
+    /**
+     * moves piece of the side to move from one tile to another, the move is expected to be at least pseudo-legal,
+     * king moving two tiles is a castle and pawn moving to the en passant tile captures the pawn that jumped
+     * @param from
+     * @param to
+     * @param promotion piece the pawn is promoted to, null if it is not a promotion
+     */
+    public void makeMove(int from, int to, Piece.PieceType promotion) {
+        makeMove(from, to, promotion, this.mailbox[from] % 6 == PAWN && to == this.enPassantSquare);
+    }
+
+    private void makeMove(int from, int to, Piece.PieceType promotion, boolean enPassant) {
+        final int moved = this.mailbox[from];
+        final int team = moved / 6;
+        final int type = moved % 6;
+
+        if (this.ply == this.history.length) {
+            this.history = Arrays.copyOf(this.history, this.history.length * 2);
+        }
+        Undo undo = this.history[this.ply];
+        if (undo == null) {
+            undo = new Undo();
+            this.history[this.ply] = undo;
+        }
+        this.ply++;
+        undo.from = from;
+        undo.to = to;
+        undo.moved = moved;
+        undo.capturedSquare = to;
+        undo.captured = this.mailbox[to];
+        undo.promoted = NO_PIECE;
+        undo.rookFrom = NO_SQUARE;
+        undo.castlingRights = this.castlingRights;
+        undo.enPassantSquare = this.enPassantSquare;
+        undo.zobristKey = this.zobristKey;
+
+        if (enPassant) { //pawn that jumped is behind the tile we move to
+            undo.capturedSquare = to + (team == 0 ? 8 : -8);
+            undo.captured = this.mailbox[undo.capturedSquare];
+        }
+        if (undo.captured != NO_PIECE) {
+            removePiece(undo.capturedSquare, undo.captured);
+        }
+
+        removePiece(from, moved);
+        if (promotion != null) {
+            undo.promoted = team * 6 + promotion.ordinal();
+            putPiece(to, undo.promoted);
+        } else {
+            putPiece(to, moved);
+        }
+
+        if (type == KING && Math.abs(to - from) == 2) { //castle, rook jumps over the king
+            undo.rookFrom = to > from ? from + 3 : from - 4;
+            undo.rookTo = to > from ? from + 1 : from - 1;
+            final int rook = this.mailbox[undo.rookFrom];
+            removePiece(undo.rookFrom, rook);
+            putPiece(undo.rookTo, rook);
+        }
+
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.enPassantKey(this.enPassantSquare);
+        this.castlingRights &= CASTLING_MASKS[from] & CASTLING_MASKS[to];
+        this.enPassantSquare = NO_SQUARE;
+        if (type == PAWN && Math.abs(to - from) == 16 && canCaptureEnPassant((from + to) / 2, team)) {
+            this.enPassantSquare = (from + to) / 2;
+        }
+        this.zobristKey ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.enPassantKey(this.enPassantSquare) ^ Zobrist.turnKey();
+        this.sideToMove = TEAMS[1 - team];
+    }
+
+    /**
+     * en passant tile is remembered only if some enemy pawn can really capture there, so positions that
+     * differ just by a jump nobody can use get the same key
+     * @param jumpedOver tile the pawn jumped over
+     * @param team team of the pawn that jumped
+     * @return
+     */
+    private boolean canCaptureEnPassant(int jumpedOver, int team) {
+        return (BoardUtils.PAWN_ATTACK_MASKS[team][jumpedOver] & this.pieces[(1 - team) * 6 + PAWN]) != 0;
+    }
+
+    /**
+     * castling rights that stay after a move from or to given tile (moving king or rook, capturing rook)
+     * @param square
+     * @return
+     */
+    public static int castlingMask(int square) {
+        return CASTLING_MASKS[square];
+    }
+
+    /**
+     * takes back the last move made by makeMove
+     */
+    public void unmakeMove() {
+        final Undo undo = this.history[--this.ply];
+        if (undo.rookFrom != NO_SQUARE) {
+            final int rook = this.mailbox[undo.rookTo];
+            removePiece(undo.rookTo, rook);
+            putPiece(undo.rookFrom, rook);
+        }
+        removePiece(undo.to, undo.promoted != NO_PIECE ? undo.promoted : undo.moved);
+        putPiece(undo.from, undo.moved);
+        if (undo.captured != NO_PIECE) {
+            putPiece(undo.capturedSquare, undo.captured);
+        }
+        this.castlingRights = undo.castlingRights;
+        this.enPassantSquare = undo.enPassantSquare;
+        this.zobristKey = undo.zobristKey;
+        this.sideToMove = TEAMS[undo.moved / 6];
+    }
+
+    /**
+     * @return number of moves that can be taken back
+     */
+    public int getPly() {
+        return this.ply;
+    }
+
+    private static int[] castlingMasks() {
+        final int[] masks = new int[64];
+        Arrays.fill(masks, WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        masks[60] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+        masks[63] &= ~WHITE_KING_SIDE;
+        masks[56] &= ~WHITE_QUEEN_SIDE;
+        masks[4] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+        masks[7] &= ~BLACK_KING_SIDE;
+        masks[0] &= ~BLACK_QUEEN_SIDE;
+        return masks;
+    }
+
+    /**
+     * everything makeMove changes besides the moved piece, so it can be restored
+     */
+    private static final class Undo {
+        int from;
+        int to;
+        int moved;
+        int captured;
+        int capturedSquare;
+        int promoted;
+        int rookFrom;
+        int rookTo;
+        int castlingRights;
+        int enPassantSquare;
+        long zobristKey;
+    }
+
+    public long getPieces(Team team, Piece.PieceType pieceType) {
+        return this.pieces[pieceIndex(team, pieceType)];
+    }
+
+    /**
+     * @param pieceIndex see pieceIndex(team, pieceType)
+     * @return
+     */
+    public long getPieces(int pieceIndex) {
+        return this.pieces[pieceIndex];
+    }
+
+    public long getOccupancy(int team) {
+        return this.teamOccupancy[team];
+    }
+
+    public long getOccupancy(Team team) {
+        return this.teamOccupancy[team.ordinal()];
+    }
+
+    public long getOccupancy() {
+        return this.occupied;
+    }
+
+    public Team getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    /**
+     * @return tile behind the pawn that has just jumped, NO_SQUARE if there is none
+     */
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
+
+    /**
+     * @param other
+     * @return true if both bitboards have the same pieces, side to move, castling rights and en passant tile
+     */
+    boolean samePosition(BitBoard other) {
+        return Arrays.equals(this.pieces, other.pieces) && this.sideToMove == other.sideToMove &&
+                this.castlingRights == other.castlingRights && this.enPassantSquare == other.enPassantSquare;
+    }
+
+    /**
+     * @return zobrist key of the position, updated by every move
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     * @return key of the placement of pawns of both teams, the same for all positions with the same pawns
+     */
+    public long getPawnKey() {
+        return this.pawnKey;
+    }
+
+    /**
+     * @return middlegame piece-square score (material included) of white minus black, see PieceSquareTables
+     */
+    public int getMidgameScore() {
+        return this.midgame;
+    }
+
+    /**
+     * @return endgame piece-square score (material included) of white minus black
+     */
+    public int getEndgameScore() {
+        return this.endgame;
+    }
+
+    /**
+     * @return game phase, PieceSquareTables.MAX_PHASE with all pieces, 0 with kings and pawns only
+     * (more than the maximum after promotions)
+     */
+    public int getPhase() {
+        return this.phase;
+    }
+
+    public boolean isEmpty(int square) {
+        return (this.occupied & (1L << square)) == 0;
+    }
+
+    /**
+     * @param square
+     * @return team of the piece on given tile, null if the tile is empty
+     */
+    public Team getTeam(int square) {
+        final int piece = this.mailbox[square];
+        return piece == NO_PIECE ? null : TEAMS[piece / 6];
+    }
+
+    /**
+     * @param square
+     * @return index of the piece (see pieceIndex) on given tile, NO_PIECE if the tile is empty
+     */
+    public int getPiece(int square) {
+        return this.mailbox[square];
+    }
+
+    /**
+     * @param square
+     * @return type of the piece on given tile, null if the tile is empty
+     */
+    public Piece.PieceType getPieceType(int square) {
+        final int piece = this.mailbox[square];
+        return piece == NO_PIECE ? null : PIECE_TYPES[piece % 6];
+    }
+
+    /**
+     * pieces of given team attacking given tile, found without generating any moves - the tile looks outwards
+     * through the attack tables and a piece stands where it would be attacked by the same kind of piece
+     * standing on the tile (for pawns the table of the other team is used, they attack only forward)
+     * @param square
+     * @param byTeam team ordinal
+     * @param occupied occupancy that blocks the sliders
+     * @return
+     */
+    public long attackersOf(int square, int byTeam, long occupied) {
+        final int first = byTeam * 6;
+        final long queens = this.pieces[first + Piece.PieceType.QUEEN.ordinal()];
+        return (BoardUtils.PAWN_ATTACK_MASKS[1 - byTeam][square] & this.pieces[first + PAWN]) |
+                (BoardUtils.KNIGHT_ATTACKS[square] & this.pieces[first + Piece.PieceType.KNIGHT.ordinal()]) |
+                (BoardUtils.KING_ATTACKS[square] & this.pieces[first + KING]) |
+                (MagicBitboards.bishopAttacks(square, occupied) & (this.pieces[first + Piece.PieceType.BISHOP.ordinal()] | queens)) |
+                (MagicBitboards.rookAttacks(square, occupied) & (this.pieces[first + Piece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    /**
+     * @param square
+     * @param byTeam team ordinal
+     * @return true if some piece of given team attacks given tile
+     */
+    public boolean isSquareAttacked(int square, int byTeam) {
+        return attackersOf(square, byTeam, this.occupied) != 0;
+    }
+
+    public boolean isSquareAttacked(int square, Team byTeam) {
+        return isSquareAttacked(square, byTeam.ordinal());
+    }
+
+    /**
+     * @return true if the king of the side to move is attacked
+     */
+    public boolean isInCheck() {
+        return isSquareAttacked(getKingSquare(this.sideToMove), 1 - this.sideToMove.ordinal());
+    }
+
+    public int getKingSquare(Team team) {
+        return Long.numberOfTrailingZeros(this.pieces[pieceIndex(team, Piece.PieceType.KING)]);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            final Piece.PieceType pieceType = getPieceType(i);
+            String tileText = "-";
+            if (pieceType != null) {
+                tileText = getTeam(i).isBlack() ? pieceType.toString().toLowerCase() : pieceType.toString();
+            }
+            builder.append(String.format("%3s", tileText));
+            if ((i + 1) % 8 == 0) {
+                builder.append("\n");
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -1,11 +1,15 @@
 package Board;
 
+import Moves.LegalMoveGenerator;
 import Moves.Move;
+import Moves.MoveList;
 import Pieces.*;
 import Players.BlackPlayer;
 import Players.Player;
 import Players.Team;
 import Players.WhitePlayer;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 
 import java.io.*;
 import java.util.*;
@@ -13,6 +17,10 @@ import java.util.*;
 public class Board {
 
     private final List<Tile> gameBoard;
+    private final BitBoard bitBoard;
+    private final Pawn enPassantPawn;
+    private final long zobristKey;
+    private final Supplier<MoveList> packedLegalMoves;
     private final Collection<Piece> whites;
     private final Collection<Piece> blacks;
 
@@ -22,17 +30,65 @@ public class Board {
 
     private Board(Builder builder) {         //chessboard is represented as an one-dimensional array of size 64
         this.gameBoard = Arrays.asList(createGameBoard(builder));
+        this.enPassantPawn = builder.enPassantPawn;
+        this.bitBoard = BitBoard.fromBoard(this, builder.nextMove, builder.enPassantPawn);
+        //a move knows the key of the board it leads to, only the first board gets it from its pieces
+        if (builder.zobristKey != null) {
+            this.bitBoard.zobristKey = builder.zobristKey;
+        }
+        this.zobristKey = this.bitBoard.getZobristKey();
         this.whites = currentBoardState(this.gameBoard, Team.WHITE);
         this.blacks = currentBoardState(this.gameBoard, Team.BLACK);
 
-        final Collection<Move> whiteLegalMoves = getLegalMoves(this.whites);
-        final Collection<Move> blackLegalMoves = getLegalMoves(this.blacks);
+        //moves are generated only when they are needed for the first time
+        final Supplier<Collection<Move>> whiteLegalMoves = Suppliers.memoize(new Supplier<Collection<Move>>() {
+            public Collection<Move> get() {
+                return getLegalMoves(whites);
+            }
+        });
+        final Supplier<Collection<Move>> blackLegalMoves = Suppliers.memoize(new Supplier<Collection<Move>>() {
+            public Collection<Move> get() {
+                return getLegalMoves(blacks);
+            }
+        });
+
+        this.packedLegalMoves = Suppliers.memoize(new Supplier<MoveList>() {
+            public MoveList get() {
+                final MoveList moves = new MoveList();
+                LegalMoveGenerator.generateLegal(bitBoard, moves);
+                return moves;
+            }
+        });
 
-        this.whitePlayer = new WhitePlayer(this, whiteLegalMoves, blackLegalMoves);
-        this.blackPlayer = new BlackPlayer(this, blackLegalMoves, whiteLegalMoves);
+        this.whitePlayer = new WhitePlayer(this, whiteLegalMoves);
+        this.blackPlayer = new BlackPlayer(this, blackLegalMoves);
         this.currentPlayer = builder.nextMove.choosePlayer(this.whitePlayer, this.blackPlayer);
     }
 
+    /**
+     * two boards are equal when they have the same pieces on the same tiles, the same player on move and
+     * the same castling and en passant possibilities, the zobrist key is compared first
+     * @param other
+     * @return
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Board)) {
+            return false;
+        }
+        final Board otherBoard = (Board) other;
+        return this.zobristKey == otherBoard.zobristKey &&
+                this.bitBoard.samePosition(otherBoard.bitBoard);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (this.zobristKey ^ (this.zobristKey >>> 32));
+    }
+
     @Override
     public String toString() {
         final StringBuilder builder = new StringBuilder();
@@ -110,6 +166,91 @@ public class Board {
         return gameBoard.get(coords);
     }
 
+    /**
+     *
+     * @return copy of the same position as bitboards, moves made on it don't change this board
+     */
+    public BitBoard getBitBoard() {
+        return new BitBoard(this.bitBoard);
+    }
+
+    /**
+     *
+     * @return strictly legal moves of the player on move as packed moves, the list must not be changed
+     */
+    public MoveList getPackedLegalMoves() {
+        return this.packedLegalMoves.get();
+    }
+
+    /**
+     *
+     * @return zobrist key of the position
+     */
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    /**
+     *
+     * @return castling flags as in BitBoard
+     */
+    public int getCastlingRights() {
+        return this.bitBoard.getCastlingRights();
+    }
+
+    /**
+     *
+     * @return tile behind the pawn that has just jumped if it can be captured en passant, BitBoard.NO_SQUARE otherwise
+     */
+    public int getEnPassantSquare() {
+        return this.bitBoard.getEnPassantSquare();
+    }
+
+    /**
+     *
+     * @return pawn that has just jumped, null if the last move was not a jump
+     */
+    public Pawn getEnPassantPawn() {
+        return this.enPassantPawn;
+    }
+
+    /**
+     *
+     * @param team
+     * @param pieceType
+     * @return bitboard of given pieces
+     */
+    public long getPieces(Team team, Piece.PieceType pieceType) {
+        return this.bitBoard.getPieces(team, pieceType);
+    }
+
+    /**
+     *
+     * @param square
+     * @param byTeam
+     * @return true if some piece of given team attacks given tile, no moves are generated
+     */
+    public boolean isSquareAttacked(int square, Team byTeam) {
+        return this.bitBoard.isSquareAttacked(square, byTeam);
+    }
+
+    /**
+     *
+     * @return bitboard of all occupied tiles
+     */
+    public long getOccupancy() {
+        return this.bitBoard.getOccupancy();
+    }
+
+    /**
+     *
+     * @param team
+     * @return bitboard of tiles occupied by given team
+     */
+    public long getOccupancy(Team team) {
+        return this.bitBoard.getOccupancy(team);
+    }
+
     /**
      * creates new chess board
      * @param builder
@@ -283,6 +424,7 @@ public class Board {
         Map<Integer, Piece> boardConfig;
         Team nextMove;
         Pawn enPassantPawn;
+        Long zobristKey;
 
         public Builder() {
             this.boardConfig = new HashMap();
@@ -310,6 +452,17 @@ public class Board {
         public void setEnPassantPawn(Pawn pawn) {
             this.enPassantPawn = pawn;
         }
+
+        /**
+         * key of the built board computed by the move that leads to it, without it the key is computed
+         * from the pieces
+         * @param zobristKey
+         * @return
+         */
+        public Builder setZobristKey(final long zobristKey) {
+            this.zobristKey = zobristKey;
+            return this;
+        }
     }
 }
 
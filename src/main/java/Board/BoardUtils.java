@@ -1,7 +1,6 @@
 package Board;
 
 
-import java.lang.reflect.Array;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -13,11 +12,6 @@ public class BoardUtils {
         throw new RuntimeException("Not instantiable");
     }
 
-    public static final boolean[] FIRST_COLUMN = getColumn(0); //columns, where can be some exceptions (bishop, rook, knight)
-    public static final boolean[] SECOND_COLUMN = getColumn(1);
-    public static final boolean[] SEVENTH_COLUMN = getColumn(6);
-    public static final boolean[] EIGHTH_COLUMN = getColumn(7);
-
     public static final boolean[] FIRST_ROW = getRow(0);
     public static final boolean[] SECOND_ROW = getRow(8); //I need second and seventh row for pawns - so I know whether I can make the jump
     public static final boolean[] FOURTH_ROW = getRow(24);
@@ -25,6 +19,51 @@ public class BoardUtils {
     public static final boolean[] SEVENTH_ROW = getRow(48);
     public static final boolean[] EIGHT_ROW = getRow(56);
 
+    /**
+     * attack tables - for every tile all tiles the piece can reach from it, computed once so pieces
+     * don't have to check the edges of the board during move generation
+     */
+    public static final int[][] KNIGHT_MOVES = computeJumps(new int[]{-17, -15, -10, -6, 6, 10, 15, 17}, 2);
+    public static final int[][] KING_MOVES = computeJumps(new int[]{-9, -8, -7, -1, 1, 7, 8, 9}, 1);
+    public static final int[][][] PAWN_ATTACKS = {computeJumps(new int[]{-9, -7}, 1), computeJumps(new int[]{7, 9}, 1)}; //indexed by team ordinal (white, black)
+
+    public static final long[] KNIGHT_ATTACKS = toMasks(KNIGHT_MOVES);
+    public static final long[] KING_ATTACKS = toMasks(KING_MOVES);
+    public static final long[][] PAWN_ATTACK_MASKS = {toMasks(PAWN_ATTACKS[0]), toMasks(PAWN_ATTACKS[1])};
+
+    /**
+     * rays for sliding pieces - for every tile and direction the tiles in order of distance from the piece
+     */
+    public static final int[][][] ROOK_RAYS = computeRays(new int[]{-8, -1, 1, 8});
+    public static final int[][][] BISHOP_RAYS = computeRays(new int[]{-9, -7, 7, 9});
+    public static final int[][][] QUEEN_RAYS = computeRays(new int[]{-9, -8, -7, -1, 1, 7, 8, 9});
+
+    /**
+     * for two tiles on the same row, column or diagonal - tiles strictly between them and the whole line
+     * going through both of them, empty masks if the tiles are not on one line
+     */
+    public static final long[][] BETWEEN = new long[64][64];
+    public static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int coord = 0; coord < 64; coord++) {
+            for (int i = 0; i < QUEEN_RAYS[coord].length; i++) {
+                final int[] ray = QUEEN_RAYS[coord][i];
+                final int[] opposite = QUEEN_RAYS[coord][QUEEN_RAYS[coord].length - 1 - i];
+                long line = 1L << coord;
+                for (final int other : ray) { line |= 1L << other; }
+                for (final int other : opposite) { line |= 1L << other; }
+
+                long between = 0L;
+                for (final int other : ray) {
+                    BETWEEN[coord][other] = between;
+                    LINE[coord][other] = line;
+                    between |= 1L << other;
+                }
+            }
+        }
+    }
+
     public static final List<String> ALGEBRAIC_NOTATION = Arrays.asList(algebraicNotation());
     public static final Map<String, Integer> POSITION_TO_COORDINATE = posToCoordMap();
 
@@ -32,14 +71,62 @@ public class BoardUtils {
         return coord >= 0 && coord < 64;
     }
 
-    private static boolean[] getColumn(int columnIdx) { //function that returns boolean array[64] with true on indexes when you are on desired column, false otherwise
-        final boolean[] column = new boolean[64];
+    /**
+     * tiles reachable by one jump, a jump is valid only if it doesn't move the piece more columns than it can
+     * (otherwise it would wrap around the edge of the board)
+     * @param offsets
+     * @param maxColumnDistance
+     * @return
+     */
+    private static int[][] computeJumps(int[] offsets, int maxColumnDistance) {
+        final int[][] jumps = new int[64][];
+        for (int coord = 0; coord < 64; coord++) {
+            final int[] targets = new int[offsets.length];
+            int count = 0;
+            for (final int offset : offsets) {
+                final int newCoord = coord + offset;
+                if (isValidCoord(newCoord) && Math.abs(newCoord % 8 - coord % 8) <= maxColumnDistance) {
+                    targets[count++] = newCoord;
+                }
+            }
+            jumps[coord] = Arrays.copyOf(targets, count);
+        }
+        return jumps;
+    }
+
+    /**
+     * for every tile and direction tiles where the sliding piece can go on an empty board,
+     * the ray ends when the next step leaves the board or jumps to the other side of it
+     * @param directions
+     * @return
+     */
+    private static int[][][] computeRays(int[] directions) {
+        final int[][][] rays = new int[64][directions.length][];
+        for (int coord = 0; coord < 64; coord++) {
+            for (int i = 0; i < directions.length; i++) {
+                final int[] ray = new int[7];
+                int count = 0;
+                int current = coord;
+                int next = current + directions[i];
+                while (isValidCoord(next) && Math.abs(next % 8 - current % 8) <= 1) {
+                    ray[count++] = next;
+                    current = next;
+                    next = current + directions[i];
+                }
+                rays[coord][i] = Arrays.copyOf(ray, count);
+            }
+        }
+        return rays;
+    }
 
-        while (columnIdx < 64) {
-            column[columnIdx] = true;
-            columnIdx += 8;
+    private static long[] toMasks(int[][] targets) {
+        final long[] masks = new long[64];
+        for (int coord = 0; coord < 64; coord++) {
+            for (final int target : targets[coord]) {
+                masks[coord] |= 1L << target;
+            }
         }
-        return column;
+        return masks;
     }
 
     private static boolean[] getRow(int rowNumber) { //function that returns boolean array[64] with true on indexes when you are on desired row, false otherwise
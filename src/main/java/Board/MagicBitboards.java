@@ -0,0 +1,150 @@
+package Board;
+
+/**
+ * attacks of sliding pieces (rook, bishop, queen) looked up by magic bitboards - the occupancy of the tiles
+ * relevant for a piece is multiplied by a "magic" number and the highest bits of the product index a table
+ * with the precomputed attack set, so one lookup replaces walking the rays tile by tile
+ *
+ * magic numbers were found once by trying random sparse numbers until every subset of the mask mapped to
+ * an entry without two different attack sets colliding, only the attack tables are filled when the class is loaded
+ */
+public class MagicBitboards {
+
+    MagicBitboards() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    private static final long[] ROOK_MASKS = relevantOccupancy(BoardUtils.ROOK_RAYS);
+    private static final long[] BISHOP_MASKS = relevantOccupancy(BoardUtils.BISHOP_RAYS);
+
+    private static final long[] ROOK_MAGICS = {
+            0xA080028098400120L, 0x00C0001009402000L, 0x010010200041000AL, 0x1080040800801000L,
+            0x2080080002040080L, 0x0B00040012080D00L, 0x0200010084080200L, 0x020000844C010022L,
+            0x0800802040008000L, 0x8141004000208100L, 0x1003002000410011L, 0x0009001000A10900L,
+            0x0200808008000400L, 0x0031000804008300L, 0x2144000802041001L, 0x0081001068820100L,
+            0x0080004000402000L, 0x0010004000200040L, 0x0010410020030810L, 0x1810004040080400L,
+            0x0008008004008008L, 0x0000080140100420L, 0x1001010100020004L, 0x400012000455088CL,
+            0x0080004040002010L, 0x1000400080802000L, 0x0003044500142000L, 0x0540240900100100L,
+            0x400C001101000800L, 0x0000200801044010L, 0x0408020400081001L, 0x2000090200088044L,
+            0x8000804004800028L, 0x0002010022004080L, 0x8802001086002241L, 0x0880082501001000L,
+            0x000200040A001020L, 0x128A040080800200L, 0x0201004421008200L, 0x2006008042000104L,
+            0x8100400080208000L, 0x6002008100420020L, 0x2080108200220040L, 0x0208015000818009L,
+            0x40C4008008028004L, 0x0024010002004040L, 0x0408622801840010L, 0x0102410180460004L,
+            0x4400402089020200L, 0x4081048020460200L, 0x0520100020008080L, 0x0005100021000900L,
+            0x1100080004008080L, 0x4400040080020080L, 0x0084020801100400L, 0x0C00008044010200L,
+            0x4001800500406015L, 0x0C0091C100220282L, 0x1808094500200011L, 0x000500045000A009L,
+            0x0002002004100802L, 0x6032001088010402L, 0x008000A822013004L, 0x6200084400210482L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0160224408002040L, 0x00310A0800418C70L, 0x0C10440042440020L, 0x0049240701000000L,
+            0x0044042140100010L, 0x0408900460000011L, 0x20214410A8088400L, 0x0041804410A00808L,
+            0x0008050490340100L, 0x2440082121020200L, 0x0041240502121400L, 0x0002040400850008L,
+            0x4240420210040C02L, 0x0880050C20048465L, 0x0400010801100844L, 0x01021024040404A0L,
+            0x0204451004101460L, 0x8C20200802208210L, 0x0008051402212201L, 0x044400A041002000L,
+            0x601E000400A20020L, 0xAC00410208024000L, 0x8004002110821024L, 0x0100200108821010L,
+            0x5D04F01024200810L, 0x0010A40508080088L, 0x0808300548008820L, 0x0201040048020860L,
+            0x840C08201400200BL, 0x1042141042004204L, 0x0008022101070500L, 0x0008770122010101L,
+            0xA010041080200220L, 0x0011080230200403L, 0x0601080802010040L, 0x0022080800020A00L,
+            0x0205040400290500L, 0x001612040802009CL, 0x0010220089220080L, 0x0000820882021080L,
+            0x0080C20840102000L, 0x2002080404004200L, 0x4110404020801010L, 0x1218030280800800L,
+            0x80200200A4001202L, 0x0001101001100081L, 0x6052100152144300L, 0x0008008C00494080L,
+            0x0040823082200001L, 0x0002010082104012L, 0x1000004054101000L, 0x9642083042020048L,
+            0x00000010020E1000L, 0x0202060810010014L, 0x08100508088C0682L, 0x0288900102032D00L,
+            0x104101080104020AL, 0x0320049400863012L, 0x0841240900889022L, 0x8032011002104408L,
+            0x8001A05540050100L, 0x6400010620040100L, 0x00000820080A0C48L, 0x0102080801204A01L
+    };
+
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            ROOK_ATTACKS[square] = fillTable(ROOK_MASKS[square], ROOK_MAGICS[square], ROOK_SHIFTS[square], BoardUtils.ROOK_RAYS[square]);
+            BISHOP_ATTACKS[square] = fillTable(BISHOP_MASKS[square], BISHOP_MAGICS[square], BISHOP_SHIFTS[square], BoardUtils.BISHOP_RAYS[square]);
+        }
+    }
+
+    /**
+     * @param square tile of the rook
+     * @param occupancy all pieces on board
+     * @return tiles attacked by rook, including the first occupied tile in each direction
+     */
+    public static long rookAttacks(int square, long occupancy) {
+        return ROOK_ATTACKS[square][(int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * @param square tile of the bishop
+     * @param occupancy all pieces on board
+     * @return tiles attacked by bishop, including the first occupied tile in each direction
+     */
+    public static long bishopAttacks(int square, long occupancy) {
+        return BISHOP_ATTACKS[square][(int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    public static long queenAttacks(int square, long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * only the tiles that can block a ray matter - the last tile of every ray is attacked whether it is
+     * occupied or not, so it is left out of the mask
+     * @param rays
+     * @return
+     */
+    private static long[] relevantOccupancy(int[][][] rays) {
+        final long[] masks = new long[64];
+        for (int square = 0; square < 64; square++) {
+            for (final int[] ray : rays[square]) {
+                for (int i = 0; i < ray.length - 1; i++) {
+                    masks[square] |= 1L << ray[i];
+                }
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * walks the rays until the first occupied tile, used only to fill the tables
+     * @param rays
+     * @param occupancy
+     * @return
+     */
+    private static long slowAttacks(int[][] rays, long occupancy) {
+        long attacks = 0L;
+        for (final int[] ray : rays) {
+            for (final int coord : ray) {
+                attacks |= 1L << coord;
+                if ((occupancy & (1L << coord)) != 0) {
+                    break;
+                }
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * computes attacks for every subset of the mask (enumerated by the carry-rippler trick) and stores them
+     * under the index given by the magic number
+     * @return table of attacks for one tile
+     */
+    private static long[] fillTable(long mask, long magic, int shift, int[][] rays) {
+        final long[] table = new long[1 << (64 - shift)];
+        long subset = 0L;
+        do {
+            final int index = (int) ((subset * magic) >>> shift);
+            final long attacks = slowAttacks(rays, subset);
+            if (table[index] != 0 && table[index] != attacks) {
+                throw new IllegalStateException("Magic number collision");
+            }
+            table[index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+        return table;
+    }
+}
@@ -0,0 +1,515 @@
+package Book;
+
+import Board.BitBoard;
+import Board.Board;
+import Board.Zobrist;
+import Moves.LegalMoveGenerator;
+import Moves.MoveList;
+import Moves.PackedMove;
+import Pieces.Piece;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * builds an opening book (see OpeningBook) from all PGN files of a directory - every game is replayed up to
+ * a maximum ply and every move counts for the position it was played in, with the points it brought to the side
+ * that played it; the weight of a move in the book is its points (2 for a win, 1 for a draw), moves played in
+ * fewer games than the minimum are left out
+ *
+ * the calling thread only reads the files and cuts them into games, the games are replayed by the other threads
+ * in batches, each with its own statistics that are added together at the end; moves are read from SAN
+ * by matching them with the legal moves of BitBoard, the Board objects the GUI uses would be far too slow
+ *
+ * games that don't start from the standard position (with a FEN or SetUp tag) are skipped
+ *
+ * usage:
+ *  BookBuilder pgnDirectory book.bin [maxPly] [minGames] [threads]
+ */
+public class BookBuilder {
+
+    private static final int DEFAULT_MAX_PLY = 24;
+    private static final int DEFAULT_MIN_GAMES = 1;
+    private static final int BATCH_SIZE = 256;          //games sent to a thread at once
+    private static final int MAX_WEIGHT = 0xFFFF;
+    private static final long SEND_TIMEOUT_MILLIS = 100;   //how often the reading thread checks the replaying ones
+
+    private static final int WHITE_WIN = 0;
+    private static final int BLACK_WIN = 1;
+    private static final int DRAW = 2;
+    private static final int UNKNOWN = 3;
+
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+
+    private final int maxPly;
+    private final int minGames;
+    private final int threads;
+    private final BitBoard start = new BitBoard(Board.createStandardBoard().getBitBoard());
+    private long games;
+    private long skippedGames;
+    private long files;
+
+    /**
+     * @param maxPly moves after this ply are not in the book
+     * @param minGames moves played in fewer games are not in the book
+     * @param threads threads replaying the games, the calling thread reads the files besides them
+     */
+    public BookBuilder(int maxPly, int minGames, int threads) {
+        this.maxPly = maxPly;
+        this.minGames = minGames;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param directory directory with .pgn files, other files are skipped
+     * @param book file the book is written to
+     * @return number of entries of the book
+     * @throws IOException
+     */
+    public int build(File directory, File book) throws IOException {
+        final File[] pgnFiles = directory.listFiles();
+        if (pgnFiles == null) {
+            throw new IOException("Not a directory: " + directory);
+        }
+        Arrays.sort(pgnFiles);
+
+        final BlockingQueue<List<Game>> batches = new ArrayBlockingQueue<List<Game>>(this.threads * 2);
+        final ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+        final List<Future<MoveStatistics>> workers = new ArrayList<Future<MoveStatistics>>();
+        for (int i = 0; i < this.threads; i++) {
+            workers.add(pool.submit(new Replayer(batches)));
+        }
+        try {
+            List<Game> batch = new ArrayList<Game>();
+            for (final File file : pgnFiles) {
+                if (file.isFile() && file.getName().toLowerCase().endsWith(".pgn")) {
+                    this.files++;
+                    batch = readGames(file, batch, batches, workers);
+                }
+            }
+            if (!batch.isEmpty()) {
+                send(batch, batches, workers);
+            }
+            for (int i = 0; i < this.threads; i++) {
+                send(new ArrayList<Game>(), batches, workers);    //empty batch stops a thread
+            }
+            final MoveStatistics statistics = new MoveStatistics();
+            for (final Future<MoveStatistics> worker : workers) {
+                statistics.addAll(worker.get());
+            }
+            return write(statistics, book);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * cuts the file into games, full batches are sent to the threads
+     * @return batch that is not full yet
+     */
+    private List<Game> readGames(File file, List<Game> batch, BlockingQueue<List<Game>> batches, List<Future<MoveStatistics>> workers)
+            throws IOException, InterruptedException, ExecutionException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.ISO_8859_1));
+        try {
+            final StringBuilder moves = new StringBuilder();
+            int result = UNKNOWN;
+            boolean setUp = false;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("[")) {
+                    //tags after moves start the next game, blank lines before or between tags are not moves
+                    if (moves.toString().trim().length() > 0) {
+                        batch = addGame(new Game(moves.toString(), result), setUp, batch, batches, workers);
+                        moves.setLength(0);
+                        result = UNKNOWN;
+                        setUp = false;
+                    }
+                    if (line.startsWith("[Result ")) {
+                        result = parseResult(line.substring(8).replace("\"", "").replace("]", "").trim());
+                    } else if (line.startsWith("[FEN ") || line.startsWith("[SetUp ")) {
+                        setUp = true;
+                    }
+                } else {
+                    moves.append(line).append('\n');
+                }
+            }
+            if (moves.toString().trim().length() > 0) {
+                batch = addGame(new Game(moves.toString(), result), setUp, batch, batches, workers);
+            }
+        } finally {
+            reader.close();
+        }
+        return batch;
+    }
+
+    /**
+     * @param setUp the game starts from its own position, it is skipped
+     */
+    private List<Game> addGame(Game game, boolean setUp, List<Game> batch, BlockingQueue<List<Game>> batches,
+                               List<Future<MoveStatistics>> workers) throws InterruptedException, ExecutionException {
+        if (setUp) {
+            this.skippedGames++;
+            return batch;
+        }
+        this.games++;
+        batch.add(game);
+        if (batch.size() < BATCH_SIZE) {
+            return batch;
+        }
+        send(batch, batches, workers);
+        return new ArrayList<Game>();
+    }
+
+    /**
+     * waits until a thread has room for the batch, a thread that failed would never take it,
+     * so its failure is thrown instead
+     */
+    private static void send(List<Game> batch, BlockingQueue<List<Game>> batches, List<Future<MoveStatistics>> workers)
+            throws InterruptedException, ExecutionException {
+        while (!batches.offer(batch, SEND_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            for (final Future<MoveStatistics> worker : workers) {
+                if (worker.isDone()) {
+                    worker.get();
+                }
+            }
+        }
+    }
+
+    private static int parseResult(String text) {
+        if ("1-0".equals(text)) {
+            return WHITE_WIN;
+        }
+        if ("0-1".equals(text)) {
+            return BLACK_WIN;
+        }
+        if ("1/2-1/2".equals(text)) {
+            return DRAW;
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * writes moves sorted by key (as unsigned numbers), moves of a position from the most weighted,
+     * weights of a position are scaled down together when they don't fit into 16 bits
+     */
+    private int write(final MoveStatistics statistics, File book) throws IOException {
+        final List<Integer> slots = new ArrayList<Integer>();
+        for (int slot = 0; slot < statistics.getCapacity(); slot++) {
+            if (statistics.getMove(slot) != 0 && statistics.getGames(slot) >= this.minGames) {
+                slots.add(slot);
+            }
+        }
+        slots.sort(new Comparator<Integer>() {
+            public int compare(Integer first, Integer second) {
+                final int byKey = Long.compareUnsigned(statistics.getKey(first), statistics.getKey(second));
+                if (byKey != 0) {
+                    return byKey;
+                }
+                final int byPoints = Long.compare(statistics.getPoints(second), statistics.getPoints(first));
+                //slots depend on the order the threads added moves in, the move itself makes the book the same every time
+                return byPoints != 0 ? byPoints : Integer.compare(statistics.getMove(first), statistics.getMove(second));
+            }
+        });
+
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(book), 1 << 16));
+        try {
+            for (int i = 0; i < slots.size(); ) {
+                final long key = statistics.getKey(slots.get(i));
+                //the first move of the position has the most points
+                final long maxPoints = statistics.getPoints(slots.get(i));
+                int end = i;
+                while (end < slots.size() && statistics.getKey(slots.get(end)) == key) {
+                    end++;
+                }
+                for (; i < end; i++) {
+                    final int slot = slots.get(i);
+                    long weight = statistics.getPoints(slot);
+                    if (maxPoints > MAX_WEIGHT) {
+                        weight = weight * MAX_WEIGHT / maxPoints;
+                    }
+                    out.writeLong(key);
+                    out.writeShort(statistics.getMove(slot));
+                    out.writeShort((int) weight);
+                    out.writeInt(0);
+                }
+            }
+        } finally {
+            out.close();
+        }
+        return slots.size();
+    }
+
+    /**
+     * replays batches of games until it gets an empty one
+     */
+    private class Replayer implements Callable<MoveStatistics> {
+        private final BlockingQueue<List<Game>> batches;
+        private final MoveStatistics statistics = new MoveStatistics();
+        private final MoveList moves = new MoveList();
+
+        Replayer(BlockingQueue<List<Game>> batches) {
+            this.batches = batches;
+        }
+
+        public MoveStatistics call() throws InterruptedException {
+            while (true) {
+                final List<Game> batch = this.batches.take();
+                if (batch.isEmpty()) {
+                    return this.statistics;
+                }
+                for (final Game game : batch) {
+                    replay(game);
+                }
+            }
+        }
+
+        private void replay(Game game) {
+            final BitBoard board = new BitBoard(start);
+            final List<String> tokens = tokenize(game.moves);
+            int result = game.result;
+            //a game without the tag may still end with its result
+            if (result == UNKNOWN && !tokens.isEmpty()) {
+                result = parseResult(tokens.get(tokens.size() - 1));
+            }
+            for (int ply = 0; ply < tokens.size() && ply < maxPly; ply++) {
+                final int move = parseSan(board, tokens.get(ply), this.moves);
+                if (move == PackedMove.NONE) {
+                    break;
+                }
+                this.statistics.add(Zobrist.polyglotKey(board), OpeningBook.toPolyglot(move), 1,
+                        points(result, board.getSideToMove().ordinal()));
+                board.makeMove(move);
+            }
+        }
+    }
+
+    /**
+     * @return points of the game for the side (2 for a win, 1 for a draw, 0 for a loss or unknown result)
+     */
+    private static int points(int result, int side) {
+        if (result == DRAW) {
+            return 1;
+        }
+        return result == side ? 2 : 0;
+    }
+
+    /**
+     * @param text moves of a game
+     * @return moves in SAN, without move numbers, comments, variations and annotations, the result may be the last
+     */
+    static List<String> tokenize(String text) {
+        final List<String> tokens = new ArrayList<String>();
+        final StringBuilder token = new StringBuilder();
+        int variations = 0;
+        boolean comment = false;
+        boolean lineComment = false;
+        for (int i = 0; i <= text.length(); i++) {
+            final char c = i < text.length() ? text.charAt(i) : ' ';
+            if (comment) {
+                comment = c != '}';
+                continue;
+            }
+            if (lineComment) {
+                lineComment = c != '\n';
+                continue;
+            }
+            if (c == '{') {
+                comment = true;
+            } else if (c == ';') {
+                lineComment = true;
+            } else if (c == '(') {
+                variations++;
+            } else if (c == ')') {
+                variations--;
+            } else if (variations == 0) {
+                if (Character.isWhitespace(c) || c == '.') {
+                    addToken(token, tokens);
+                } else {
+                    token.append(c);
+                }
+                continue;
+            }
+            addToken(token, tokens);
+        }
+        return tokens;
+    }
+
+    private static void addToken(StringBuilder token, List<String> tokens) {
+        if (token.length() > 0 && token.charAt(0) != '$' && !isMoveNumber(token)) {
+            tokens.add(token.toString());
+        }
+        token.setLength(0);
+    }
+
+    private static boolean isMoveNumber(StringBuilder token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param board
+     * @param san move in standard algebraic notation, like e4, exd5, Nbd7, R1e2, e8=Q, O-O
+     * @param moves list for the legal moves
+     * @return the legal move, PackedMove.NONE if there is no such move or more of them
+     */
+    static int parseSan(BitBoard board, String san, MoveList moves) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        san = san.substring(0, end);
+        moves.clear();
+        LegalMoveGenerator.generateLegal(board, moves);
+
+        if (san.equals("O-O") || san.equals("0-0") || san.equals("O-O-O") || san.equals("0-0-0")) {
+            final boolean kingSide = san.length() == 3;
+            for (int i = 0; i < moves.size(); i++) {
+                final int move = moves.get(i);
+                if (PackedMove.isCastle(move) && (PackedMove.getTo(move) > PackedMove.getFrom(move)) == kingSide) {
+                    return move;
+                }
+            }
+            return PackedMove.NONE;
+        }
+
+        int promotion = 0;
+        final int equals = san.indexOf('=');
+        if (equals >= 0 && equals + 1 < san.length()) {
+            promotion = pieceType(san.charAt(equals + 1));
+            san = san.substring(0, equals);
+        } else if (san.length() > 2 && pieceType(san.charAt(san.length() - 1)) > 0 && Character.isDigit(san.charAt(san.length() - 2))) {
+            //promotion without '=' like e8Q
+            promotion = pieceType(san.charAt(san.length() - 1));
+            san = san.substring(0, san.length() - 1);
+        }
+        if (san.length() < 2) {
+            return PackedMove.NONE;
+        }
+        final int type = Character.isUpperCase(san.charAt(0)) ? pieceType(san.charAt(0)) : Piece.PieceType.PAWN.ordinal();
+        if (type < 0) {
+            return PackedMove.NONE;
+        }
+        final int to = square(san.charAt(san.length() - 2), san.charAt(san.length() - 1));
+        if (to < 0) {
+            return PackedMove.NONE;
+        }
+        //what is left between the piece and the target tile tells which of more pieces moves
+        int fromColumn = -1;
+        int fromRow = -1;
+        for (int i = type == Piece.PieceType.PAWN.ordinal() ? 0 : 1; i < san.length() - 2; i++) {
+            final char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromColumn = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRow = '8' - c;
+            }
+        }
+
+        int found = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            final int from = PackedMove.getFrom(move);
+            if (PackedMove.getTo(move) == to && PackedMove.getPiece(move) % 6 == type && PackedMove.getPromotion(move) == promotion
+                    && !PackedMove.isCastle(move) && (fromColumn < 0 || from % 8 == fromColumn) && (fromRow < 0 || from / 8 == fromRow)) {
+                if (found != PackedMove.NONE) {
+                    return PackedMove.NONE;
+                }
+                found = move;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return piece type ordinal of the SAN letter, -1 if it is not one
+     */
+    private static int pieceType(char letter) {
+        switch (letter) {
+            case 'N': return Piece.PieceType.KNIGHT.ordinal();
+            case 'B': return Piece.PieceType.BISHOP.ordinal();
+            case 'R': return Piece.PieceType.ROOK.ordinal();
+            case 'Q': return Piece.PieceType.QUEEN.ordinal();
+            case 'K': return Piece.PieceType.KING.ordinal();
+            default: return -1;
+        }
+    }
+
+    /**
+     * @return tile (a8 is 0), -1 if the characters are not a tile
+     */
+    private static int square(char column, char row) {
+        if (column < 'a' || column > 'h' || row < '1' || row > '8') {
+            return -1;
+        }
+        return ('8' - row) * 8 + (column - 'a');
+    }
+
+    public long getGames() {
+        return this.games;
+    }
+
+    /**
+     * @return games skipped because they start from a set up position
+     */
+    public long getSkippedGames() {
+        return this.skippedGames;
+    }
+
+    public long getFiles() {
+        return this.files;
+    }
+
+    private static final class Game {
+        private final String moves;
+        private final int result;
+
+        Game(String moves, int result) {
+            this.moves = moves;
+            this.result = result;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BookBuilder pgnDirectory book.bin [maxPly] [minGames] [threads]");
+            System.exit(2);
+        }
+        final int maxPly = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLY;
+        final int minGames = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MIN_GAMES;
+        final int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        final BookBuilder builder = new BookBuilder(maxPly, minGames, threads);
+        final long start = System.nanoTime();
+        final int entries = builder.build(new File(args[0]), new File(args[1]));
+        final double time = (System.nanoTime() - start) / 1e9;
+        System.err.println(String.format("files %d  games %,d  skipped %,d  entries %,d  time %.3f s  %,.0f games/s  threads %d",
+                builder.getFiles(), builder.getGames(), builder.getSkippedGames(), entries, time, builder.getGames() / time, threads));
+    }
+}
@@ -0,0 +1,111 @@
+package Book;
+
+/**
+ * how many times every move was played in every position and how many points it scored for the side that played it
+ * (2 for a win, 1 for a draw), kept in arrays by hash of the position key and the move so millions of moves
+ * don't create millions of objects; not thread-safe, every builder thread fills its own
+ */
+class MoveStatistics {
+
+    private long[] keys;
+    private int[] moves;        //polyglot moves, 0 is an empty slot (no move goes from a1 to a1)
+    private int[] games;
+    private long[] points;
+    private int size;
+
+    MoveStatistics() {
+        allocate(1 << 16);
+    }
+
+    private void allocate(int capacity) {
+        this.keys = new long[capacity];
+        this.moves = new int[capacity];
+        this.games = new int[capacity];
+        this.points = new long[capacity];
+        this.size = 0;
+    }
+
+    /**
+     * @param key polyglot key of the position
+     * @param move polyglot move
+     * @param games
+     * @param points
+     */
+    void add(long key, int move, int games, long points) {
+        final int mask = this.keys.length - 1;
+        int slot = (int) (mix(key ^ move) & mask);
+        while (this.moves[slot] != 0 && (this.keys[slot] != key || this.moves[slot] != move)) {
+            slot = (slot + 1) & mask;
+        }
+        if (this.moves[slot] == 0) {
+            this.keys[slot] = key;
+            this.moves[slot] = move;
+            this.size++;
+        }
+        this.games[slot] += games;
+        this.points[slot] += points;
+        if (this.size * 2 > this.keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * adds all moves of other statistics to these
+     * @param other
+     */
+    void addAll(MoveStatistics other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            if (other.moves[slot] != 0) {
+                add(other.keys[slot], other.moves[slot], other.games[slot], other.points[slot]);
+            }
+        }
+    }
+
+    private void grow() {
+        final long[] keys = this.keys;
+        final int[] moves = this.moves;
+        final int[] games = this.games;
+        final long[] points = this.points;
+        allocate(keys.length * 2);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (moves[slot] != 0) {
+                add(keys[slot], moves[slot], games[slot], points[slot]);
+            }
+        }
+    }
+
+    /**
+     * the key is random already, but moves of one position differ only in a few bits
+     */
+    private static long mix(long value) {
+        value *= 0x9E3779B97F4A7C15L;
+        return value ^ (value >>> 32);
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @return number of slots, the moves are at slots where getMove is not 0
+     */
+    int getCapacity() {
+        return this.keys.length;
+    }
+
+    long getKey(int slot) {
+        return this.keys[slot];
+    }
+
+    int getMove(int slot) {
+        return this.moves[slot];
+    }
+
+    int getGames(int slot) {
+        return this.games[slot];
+    }
+
+    long getPoints(int slot) {
+        return this.points[slot];
+    }
+}
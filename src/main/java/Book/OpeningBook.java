@@ -0,0 +1,236 @@
+package Book;
+
+import Board.Board;
+import Board.Zobrist;
+import Moves.Move;
+import Moves.PackedMove;
+import Pieces.Piece;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * opening book in the Polyglot format - a file of 16-byte entries sorted by position key, every entry is one move
+ * played in the position:
+ *  key     8 bytes, Zobrist.polyglotKey of the position
+ *  move    2 bytes, bits 0-2 to column, 3-5 to row, 6-8 from column, 9-11 from row (row 0 is the first rank),
+ *                   12-14 promotion (1 knight, 2 bishop, 3 rook, 4 queen); castling is the king moving onto its rook
+ *  weight  2 bytes, how good the move is, moves are chosen with probability by it
+ *  learn   4 bytes, not used
+ * all numbers are big-endian
+ *
+ * the file is mapped into memory and entries of a position are found by binary search, so a book of any size
+ * costs no heap and a lookup reads only a few pages of it
+ */
+public class OpeningBook implements Closeable {
+
+    static final int ENTRY_SIZE = 16;
+
+    //polyglot promotion numbers
+    private static final Piece.PieceType[] PROMOTIONS = {null, Piece.PieceType.KNIGHT, Piece.PieceType.BISHOP,
+            Piece.PieceType.ROOK, Piece.PieceType.QUEEN};
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer entries;
+    private final int size;
+    private final Random random = new Random();
+
+    /**
+     * @param file book in the Polyglot format, smaller than 2 GB
+     * @throws IOException
+     */
+    public OpeningBook(File file) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = this.file.getChannel();
+            if (channel.size() % ENTRY_SIZE != 0 || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a Polyglot book: " + file);
+            }
+            this.entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            this.entries.order(ByteOrder.BIG_ENDIAN);
+            this.size = (int) (channel.size() / ENTRY_SIZE);
+        } catch (IOException e) {
+            this.file.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param board
+     * @return moves of the book for the position, the most weighted first, empty if the position is not in the book
+     */
+    public List<Move> getMoves(Board board) {
+        final long key = Zobrist.polyglotKey(board.getBitBoard());
+        final List<Integer> entries = new ArrayList();
+        for (int i = firstEntry(key); i < this.size && getKey(i) == key; i++) {
+            entries.add(i);
+        }
+        //books usually keep the moves of a position by weight, but the format does not require it
+        entries.sort(new Comparator<Integer>() {
+            public int compare(Integer first, Integer second) {
+                return Integer.compare(getWeight(second), getWeight(first));
+            }
+        });
+        final List<Move> moves = new ArrayList();
+        for (final int entry : entries) {
+            final Move move = toMove(board, getMove(entry));
+            if (!(move instanceof Move.NullMove)) {
+                moves.add(move);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * @param board
+     * @return one of the book moves of the position chosen randomly by weights, NullMove if the position is not in the book
+     */
+    public Move chooseMove(Board board) {
+        final long key = Zobrist.polyglotKey(board.getBitBoard());
+        final int first = firstEntry(key);
+        int total = 0;
+        for (int i = first; i < this.size && getKey(i) == key; i++) {
+            total += getWeight(i);
+        }
+        if (total == 0) {
+            return new Move.NullMove();
+        }
+        int chosen = this.random.nextInt(total);
+        for (int i = first; ; i++) {
+            chosen -= getWeight(i);
+            if (chosen < 0) {
+                return toMove(board, getMove(i));
+            }
+        }
+    }
+
+    /**
+     * @return number of entries in the book
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public void close() throws IOException {
+        this.file.close();
+    }
+
+    /**
+     * @return index of the first entry with the key or a greater one
+     */
+    private int firstEntry(long key) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            //keys are sorted as unsigned numbers
+            if (Long.compareUnsigned(getKey(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long getKey(int index) {
+        return this.entries.getLong(index * ENTRY_SIZE);
+    }
+
+    private int getMove(int index) {
+        return this.entries.getShort(index * ENTRY_SIZE + 8) & 0xFFFF;
+    }
+
+    private int getWeight(int index) {
+        return this.entries.getShort(index * ENTRY_SIZE + 10) & 0xFFFF;
+    }
+
+    /**
+     * @param board
+     * @param polyglotMove
+     * @return legal move of the board, NullMove if the book move is not legal in it (a key collision)
+     */
+    static Move toMove(Board board, int polyglotMove) {
+        final int from = toSquare(polyglotMove >>> 6);
+        int to = toSquare(polyglotMove);
+        final Piece.PieceType promotion = PROMOTIONS[Math.min((polyglotMove >>> 12) & 7, 4)];
+        final Piece piece = board.getTile(from).getPiece();
+        if (piece != null && piece.getPieceType() == Piece.PieceType.KING && Math.abs(to - from) > 1 && to / 8 == from / 8) {
+            //book castles by moving the king onto the rook, our king moves two tiles
+            to = to > from ? from + 2 : from - 2;
+        }
+        if (promotion == null) {
+            return Move.createMove(board, from, to);
+        }
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            if (move instanceof Move.PawnPromotion && move.getMovedPiece().getPiecePosition() == from && move.getNewCoord() == to &&
+                    ((Move.PawnPromotion) move).getPromotionType() == promotion) {
+                return move;
+            }
+        }
+        return new Move.NullMove();
+    }
+
+    /**
+     * @param move PackedMove
+     * @return the move in the polyglot encoding
+     */
+    static int toPolyglot(int move) {
+        final int from = PackedMove.getFrom(move);
+        int to = PackedMove.getTo(move);
+        if (PackedMove.isCastle(move)) {
+            //the king moves onto the rook
+            to = to > from ? from + 3 : from - 4;
+        }
+        int promotion = 0;
+        for (int i = 1; i < PROMOTIONS.length; i++) {
+            if (PROMOTIONS[i] == PackedMove.getPromotionType(move)) {
+                promotion = i;
+            }
+        }
+        return promotion << 12 | fromSquare(from) << 6 | fromSquare(to);
+    }
+
+    /**
+     * @param move six bits of column and row from the first rank
+     * @return our tile (a8 is 0)
+     */
+    private static int toSquare(int move) {
+        return (7 - ((move >>> 3) & 7)) * 8 + (move & 7);
+    }
+
+    /**
+     * @param square our tile
+     * @return polyglot column and row bits of the tile
+     */
+    static int fromSquare(int square) {
+        return (7 - square / 8) << 3 | square % 8;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: OpeningBook book.bin [std|boardFile]");
+            System.exit(2);
+        }
+        final OpeningBook book = new OpeningBook(new File(args[0]));
+        try {
+            final Board board = args.length > 1 && !"std".equals(args[1]) ? Board.createCustomBoard(args[1]) : Board.createStandardBoard();
+            final long start = System.nanoTime();
+            final List<Move> moves = book.getMoves(board);
+            final double time = (System.nanoTime() - start) / 1e6;
+            System.err.println(String.format("%,d entries  key %016x  moves %s  lookup %.3f ms",
+                    book.size(), Zobrist.polyglotKey(board.getBitBoard()), moves, time));
+        } finally {
+            book.close();
+        }
+    }
+}
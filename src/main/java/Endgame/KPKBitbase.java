@@ -0,0 +1,304 @@
+package Endgame;
+
+import Board.BitBoard;
+import Board.BoardUtils;
+import Pieces.Piece;
+import Players.Team;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * king and pawn against king - one bit for every position, set if the side with the pawn wins it
+ *
+ * the bits are computed by retrograde analysis: positions are first decided by the rules that need no search
+ * (the pawn promotes safely, the lone king takes the pawn or is stalemated), then every undecided position
+ * is decided again and again from the positions its moves lead to, until nothing changes; positions left
+ * undecided are draws, the stronger side can't force anything in them
+ *
+ * positions are stored as if white had the pawn and it stood on the columns a-d, other positions are
+ * mirrored to them; that leaves 2 (side to move) * 64 (white king) * 64 (black king) * 24 (pawn) bits, 24 KB
+ *
+ * usage:
+ *  KPKBitbase [file]      generates the bitbase and writes it to the file, DEFAULT_FILE if none is given
+ */
+public final class KPKBitbase {
+
+    public static final String DEFAULT_FILE = "src/kpk.bin";
+
+    public static final int LOSS = -1;      //results for the side to move
+    public static final int DRAW = 0;
+    public static final int WIN = 1;
+
+    private static final int SIZE = 2 * 64 * 64 * 24;
+
+    //results used while generating
+    private static final byte INVALID = 0;
+    private static final byte UNKNOWN = 1;
+    private static final byte DRAWN = 2;
+    private static final byte WON = 4;
+
+    private static final int WHITE = Team.WHITE.ordinal();
+    private static final int BLACK = Team.BLACK.ordinal();
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    private static KPKBitbase instance;
+
+    private final long[] bits;
+
+    private KPKBitbase(long[] bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * @return bitbase read from DEFAULT_FILE, generated if there is no such file (it takes a fraction of a second)
+     */
+    public static synchronized KPKBitbase getInstance() {
+        if (instance == null) {
+            final File file = new File(DEFAULT_FILE);
+            if (file.exists()) {
+                try {
+                    instance = load(file);
+                } catch (IOException e) {
+                    instance = generate();
+                }
+            } else {
+                instance = generate();
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * @param board
+     * @return true if there are only both kings and one pawn on the board
+     */
+    public static boolean isKPK(BitBoard board) {
+        return isKPK(board.getOccupancy(), board.getPieces(WHITE * 6 + PAWN) | board.getPieces(BLACK * 6 + PAWN));
+    }
+
+    /**
+     * for callers that have the bitboards without a BitBoard, like Board
+     * @param occupancy tiles occupied by both teams
+     * @param pawns pawns of both teams
+     * @return true if there are only both kings and one pawn on the board
+     */
+    public static boolean isKPK(long occupancy, long pawns) {
+        return Long.bitCount(occupancy) == 3 && Long.bitCount(pawns) == 1;
+    }
+
+    /**
+     * @param board position where isKPK holds
+     * @return WIN, DRAW or LOSS for the side to move
+     */
+    public int probe(BitBoard board) {
+        final int strong = board.getPieces(WHITE * 6 + PAWN) != 0 ? WHITE : BLACK;
+        int pawn = Long.numberOfTrailingZeros(board.getPieces(strong * 6 + PAWN));
+        int strongKing = Long.numberOfTrailingZeros(board.getPieces(strong * 6 + KING));
+        int weakKing = Long.numberOfTrailingZeros(board.getPieces((1 - strong) * 6 + KING));
+        //black's pawn goes down the board, mirrored by rows it is white's
+        if (strong == BLACK) {
+            pawn ^= 56;
+            strongKing ^= 56;
+            weakKing ^= 56;
+        }
+        if (pawn % 8 > 3) {
+            pawn ^= 7;
+            strongKing ^= 7;
+            weakKing ^= 7;
+        }
+        final int strongToMove = board.getSideToMove().ordinal() == strong ? WHITE : BLACK;
+        final int index = index(strongToMove, strongKing, weakKing, pawn);
+        if ((this.bits[index >>> 6] & 1L << index) == 0) {
+            return DRAW;
+        }
+        return strongToMove == WHITE ? WIN : LOSS;
+    }
+
+    /**
+     * @param sideToMove WHITE or BLACK, white has the pawn
+     * @param whiteKing
+     * @param blackKing
+     * @param pawn tile of the pawn on columns a-d, rows 2-7
+     * @return
+     */
+    private static int index(int sideToMove, int whiteKing, int blackKing, int pawn) {
+        return ((sideToMove * 64 + whiteKing) * 64 + blackKing) * 24 + (pawn % 8) * 6 + (pawn / 8 - 1);
+    }
+
+    /**
+     * computes the bitbase by retrograde analysis
+     * @return
+     */
+    public static KPKBitbase generate() {
+        final byte[] results = new byte[SIZE];
+        for (int side = 0; side < 2; side++) {
+            for (int whiteKing = 0; whiteKing < 64; whiteKing++) {
+                for (int blackKing = 0; blackKing < 64; blackKing++) {
+                    for (int pawn = 8; pawn < 56; pawn++) {
+                        if (pawn % 8 < 4) {
+                            results[index(side, whiteKing, blackKing, pawn)] = initial(side, whiteKing, blackKing, pawn);
+                        }
+                    }
+                }
+            }
+        }
+
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int side = 0; side < 2; side++) {
+                for (int whiteKing = 0; whiteKing < 64; whiteKing++) {
+                    for (int blackKing = 0; blackKing < 64; blackKing++) {
+                        for (int pawn = 8; pawn < 56; pawn++) {
+                            if (pawn % 8 < 4) {
+                                final int index = index(side, whiteKing, blackKing, pawn);
+                                if (results[index] == UNKNOWN) {
+                                    results[index] = classify(results, side, whiteKing, blackKing, pawn);
+                                    changed |= results[index] != UNKNOWN;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        final long[] bits = new long[SIZE / 64];
+        for (int index = 0; index < SIZE; index++) {
+            if (results[index] == WON) {
+                bits[index >>> 6] |= 1L << index;
+            }
+        }
+        return new KPKBitbase(bits);
+    }
+
+    /**
+     * decides what needs no look at the following positions
+     */
+    private static byte initial(int side, int whiteKing, int blackKing, int pawn) {
+        final long whiteKingAttacks = BoardUtils.KING_ATTACKS[whiteKing];
+        final long blackKingAttacks = BoardUtils.KING_ATTACKS[blackKing];
+        final long pawnAttacks = BoardUtils.PAWN_ATTACK_MASKS[WHITE][pawn];
+        if (whiteKing == blackKing || whiteKing == pawn || blackKing == pawn || (whiteKingAttacks & 1L << blackKing) != 0) {
+            return INVALID;
+        }
+        //the side not on move can't be in check
+        if (side == WHITE && (pawnAttacks & 1L << blackKing) != 0) {
+            return INVALID;
+        }
+        final int promotion = pawn - 8;
+        if (side == WHITE && pawn / 8 == 1 && whiteKing != promotion && blackKing != promotion
+                && ((blackKingAttacks & 1L << promotion) == 0 || (whiteKingAttacks & 1L << promotion) != 0)) {
+            return WON;
+        }
+        if (side == BLACK) {
+            //stalemate, or the pawn is taken
+            final long escapes = blackKingAttacks & ~(whiteKingAttacks | pawnAttacks);
+            if (escapes == 0 || (blackKingAttacks & ~whiteKingAttacks & 1L << pawn) != 0) {
+                return DRAWN;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * white wins if one of his moves wins, draws if all his moves draw;
+     * black draws if one of his moves draws, loses if all his moves lose
+     */
+    private static byte classify(byte[] results, int side, int whiteKing, int blackKing, int pawn) {
+        final byte good = side == WHITE ? WON : DRAWN;
+        final byte bad = side == WHITE ? DRAWN : WON;
+        int reached = 0;
+        if (side == WHITE) {
+            long targets = BoardUtils.KING_ATTACKS[whiteKing];
+            while (targets != 0) {
+                reached |= results[index(BLACK, Long.numberOfTrailingZeros(targets), blackKing, pawn)];
+                targets &= targets - 1;
+            }
+            //promotion is decided by initial, a pawn in front of a king is an invalid position
+            if (pawn / 8 > 1) {
+                reached |= results[index(BLACK, whiteKing, blackKing, pawn - 8)];
+            }
+            if (pawn / 8 == 6 && pawn - 8 != whiteKing && pawn - 8 != blackKing) {
+                reached |= results[index(BLACK, whiteKing, blackKing, pawn - 16)];
+            }
+        } else {
+            long targets = BoardUtils.KING_ATTACKS[blackKing];
+            while (targets != 0) {
+                reached |= results[index(WHITE, whiteKing, Long.numberOfTrailingZeros(targets), pawn)];
+                targets &= targets - 1;
+            }
+        }
+        if ((reached & good) != 0) {
+            return good;
+        }
+        return (reached & UNKNOWN) != 0 ? UNKNOWN : bad;
+    }
+
+    /**
+     * writes the bits as big-endian longs
+     * @param file
+     * @throws IOException
+     */
+    public void save(File file) throws IOException {
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            for (final long word : this.bits) {
+                out.writeLong(word);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * @param file written by save
+     * @return
+     * @throws IOException
+     */
+    public static KPKBitbase load(File file) throws IOException {
+        if (file.length() != SIZE / 8) {
+            throw new IOException("Not a KPK bitbase: " + file);
+        }
+        final long[] bits = new long[SIZE / 64];
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = in.readLong();
+            }
+        } finally {
+            in.close();
+        }
+        return new KPKBitbase(bits);
+    }
+
+    /**
+     * @return number of won positions, of both sides to move
+     */
+    public int countWins() {
+        int wins = 0;
+        for (final long word : this.bits) {
+            wins += Long.bitCount(word);
+        }
+        return wins;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final long start = System.nanoTime();
+        final KPKBitbase bitbase = generate();
+        final double time = (System.nanoTime() - start) / 1e6;
+        System.err.println(String.format("positions %,d  won %,d  generated in %.1f ms", SIZE, bitbase.countWins(), time));
+        final File file = new File(args.length > 0 ? args[0] : DEFAULT_FILE);
+        bitbase.save(file);
+        final KPKBitbase loaded = load(file);
+        System.err.println(file + " " + file.length() + " bytes" + (loaded.countWins() == bitbase.countWins() ? "" : "  LOADED DIFFERENT"));
+    }
+}
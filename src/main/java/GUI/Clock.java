@@ -1,13 +1,14 @@
 package GUI;
 
 import Board.Board;
+import Players.Team;
 
 import java.util.Date;
 
 public class Clock implements Runnable {
 
-    public long whitePlayedTime;
-    public long blackPlayedTime;
+    public volatile long whitePlayedTime;     //written by the clock thread, read by the GUI and the computer player
+    public volatile long blackPlayedTime;
     private Table table;
 
     Clock(Thread threadObjClock, Table table) {
@@ -25,6 +26,18 @@ public class Clock implements Runnable {
         return blackPlayedTime;
     }
 
+    /**
+     * time the player has left, the clock counts whole seconds and the running second may be almost over,
+     * so it is not counted
+     * @param team
+     * @return milliseconds left on the clock of given team
+     */
+    public long getRemainingMillis(Team team) {
+        final long playedTime = team == Team.WHITE ? whitePlayedTime : blackPlayedTime;
+        final long seconds = Table.TIME_FOR_PLAYER - (Table.STARTING_TIME - playedTime) - 1;
+        return Math.max(0, seconds * 1000);
+    }
+
     private Thread threadObjClock = null;
     public void start() {
         if (threadObjClock == null) {
@@ -20,6 +20,13 @@ public class OpeningDialog extends JDialog{
     private static final String CUSTOM_BOARD = "Custom";
 
     public OpeningDialog() {
+        this(null);
+    }
+
+    /**
+     * @param previous window of the game played so far, it is closed when a new game starts, may be null
+     */
+    public OpeningDialog(final Table previous) {
         final JPanel myPanel = new JPanel(new GridLayout(0, 1));
         Border border = BorderFactory.createTitledBorder(TITLE);
         myPanel.setBorder(border);
@@ -54,25 +61,30 @@ public class OpeningDialog extends JDialog{
             @Override
             public void actionPerformed(ActionEvent e) {
                 try {
+                    Table table = null;
                     if (computerButton.isSelected() && defaultBoardButton.isSelected()) {
-                        new Table("src/defaultboard.txt", true);
+                        table = new Table("src/defaultboard.txt", true);
                     } else if (humanButton.isSelected() && defaultBoardButton.isSelected()) {
-                        new Table("src/defaultboard.txt", false);
+                        table = new Table("src/defaultboard.txt", false);
                     } else if (computerButton.isSelected() && customBoardButton.isSelected()) {
                         final JFileChooser fc = new JFileChooser();
                         int choice = fc.showOpenDialog(null);
                         if (choice == JFileChooser.APPROVE_OPTION) {
                             File file = fc.getSelectedFile();
-                            new Table(file.getPath(), true);
+                            table = new Table(file.getPath(), true);
                         }
                     } else {
                         final JFileChooser fc = new JFileChooser();
                         int choice = fc.showOpenDialog(null);
                         if (choice == JFileChooser.APPROVE_OPTION) {
                             File file = fc.getSelectedFile();
-                            new Table(file.getPath(), false);
+                            table = new Table(file.getPath(), false);
                         }
                     }
+                    //the old game is closed only when a new one has really started
+                    if (table != null && previous != null) {
+                        previous.close();
+                    }
                 } catch (IOException ex) {
                     ex.printStackTrace();
                 }
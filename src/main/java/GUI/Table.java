@@ -1,12 +1,20 @@
 package GUI;
 
+import AI.Engine;
+import AI.EngineListener;
+import AI.EngineService;
+import AI.PawnStructureEvaluator;
+import AI.PieceSquareEvaluator;
+import AI.SearchInfo;
+import AI.SearchLimits;
+import AI.TranspositionTable;
+import Book.OpeningBook;
 import Board.Board;
 import Board.BoardUtils;
 import Board.Tile;
 import Moves.MakingMove;
 import Moves.Move;
 import Pieces.Piece;
-import Players.Player;
 
 import javax.imageio.ImageIO;
 import javax.swing.*;
@@ -20,6 +28,7 @@ import java.io.*;
 import java.util.*;
 import java.util.List;
 import java.util.Timer;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.*;
 
 import static javax.swing.SwingUtilities.*;
@@ -28,6 +37,7 @@ import static javax.swing.SwingUtilities.*;
 //Whole GUI in this class (except opening dialog)
 class Table {
 
+    private final JFrame frame;
     private Board chessBoard;
 
     private Tile currentTile;
@@ -40,6 +50,9 @@ class Table {
     private Clock clock;
 
     private boolean AIMode;
+    private final EngineService engine;        // shared by all windows, see engineService()
+    private boolean thinking;                  // the computer is searching for its move, the player can't move
+    private final OpeningBook book;
     private boolean highlightLegalMoves;
 
     private static final Dimension FRAME_SIZE = new Dimension(950,800);       // size of main frame
@@ -47,17 +60,22 @@ class Table {
     private static final Dimension TILE_SIZE = new Dimension(20,20);          // size of each tile
     private static final Dimension LOWER_BAR_SIZE = new Dimension(800,25);    // size of lower bar where current player and time is displayed
     private static final boolean[] WHITE_TILES = BoardUtils.whiteTiles();                  // white tiles on board
-    private static final int TIME_FOR_PLAYER = 1200;                                       // time for each player for playing
+    static final int TIME_FOR_PLAYER = 1200;                                               // time for each player for playing
+    private static final long INCREMENT = 0;                                               // milliseconds added after every move
+    private static final int AI_THREADS = Runtime.getRuntime().availableProcessors();     // threads the computer searches with
+    private static final String BOOK_FILE = "src/book.bin";                                // opening book of the computer, optional
 
     private final static Logger log = Logger.getLogger(Table.class.getName());
 
+    private static EngineService engineService;
+
     public static long STARTING_TIME = System.currentTimeMillis();
     public long whitePlayedTime = STARTING_TIME;
     public long blackPlayedTime = STARTING_TIME;
 
     // constructor - sets frame and all panels, clock runs here
     Table(String path, boolean AIMode) throws IOException {
-        JFrame frame = new JFrame("Chess");
+        this.frame = new JFrame("Chess");
         frame.setLayout(new BorderLayout());
         final JMenuBar menuBar = createMenuBar();
         this.rightPanel = new RightPanel();
@@ -67,6 +85,9 @@ class Table {
         this.chessBoard = Board.createCustomBoard(path);
         this.highlightLegalMoves = true;
         this.AIMode = AIMode;
+        this.engine = engineService();
+        this.engine.newGame();
+        this.book = openBook();
         this.moveHistory = new MoveHistory();
         frame.add(this.rightPanel, BorderLayout.EAST);
         frame.setLocationRelativeTo(null);
@@ -83,6 +104,46 @@ class Table {
         clock.start();
     }
 
+    // the engine with its transposition table and threads is created once and used by every new game
+    private static EngineService engineService() {
+        if (engineService == null) {
+            engineService = new EngineService(new Engine(new PawnStructureEvaluator(new PieceSquareEvaluator(), PawnStructureEvaluator.DEFAULT_KILOBYTES),
+                    TranspositionTable.DEFAULT_MEGABYTES, AI_THREADS));
+        }
+        return engineService;
+    }
+
+    /**
+     * closes the window when a new game replaces it, the new game has already cancelled the search of this one
+     * on the shared engine
+     */
+    void close() {
+        thinking = false;
+        clock.stop();
+        if (book != null) {
+            try {
+                book.close();
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Opening book " + BOOK_FILE + " can't be closed", e);
+            }
+        }
+        frame.dispose();
+    }
+
+    // opening book if there is one, the computer then answers the first moves without thinking
+    private static OpeningBook openBook() {
+        final File file = new File(BOOK_FILE);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return new OpeningBook(file);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Opening book " + BOOK_FILE + " can't be read", e);
+            return null;
+        }
+    }
+
     public Board getChessBoard() {
         return chessBoard;
     }
@@ -216,7 +277,8 @@ class Table {
         final JFileChooser fc = new JFileChooser();
         newGame.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                new OpeningDialog();
+                //the game goes on until the dialog really starts a new one
+                new OpeningDialog(Table.this);
             }
         });
         saveGame.addActionListener(new ActionListener() {
@@ -239,6 +301,7 @@ class Table {
                 if (choice == JFileChooser.APPROVE_OPTION) {
                     File file = fc.getSelectedFile();
                     try {
+                        cancelComputerMove();
                         chessBoard = Board.createCustomBoard(file.getPath());
                         SwingUtilities.invokeLater(new Runnable() {
                             public void run() {
@@ -261,8 +324,11 @@ class Table {
         undoLastMove.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
                 try {
+                    //while the computer thinks, its move is not played yet
+                    final boolean computerMoved = !thinking;
+                    cancelComputerMove();
                     Table.this.undoLastMove();
-                    if (AIMode) {
+                    if (AIMode && computerMoved) {
                         Table.this.undoLastMove();
                     }
                 } catch (IOException ex) {
@@ -279,6 +345,70 @@ class Table {
         return fileMenu;
     }
 
+    /**
+     * the computer plays from the opening book, or searches for its move on the engine thread - the window
+     * keeps working meanwhile, the progress goes to the lower bar and the move is played when the search is over
+     */
+    private void playComputerMove() {
+        final Move bookMove = book != null ? book.chooseMove(chessBoard) : new Move.NullMove();
+        if (!(bookMove instanceof Move.NullMove)) {
+            doMove(chessBoard.currentPlayer().makeMove(bookMove), bookMove);
+            checkCheckMate();
+            return;
+        }
+        final Board searched = chessBoard;
+        final long timeLeft = clock.getRemainingMillis(searched.currentPlayer().getTeam());
+        //the computer thinks as long as its clock allows
+        final SearchLimits limits = new SearchLimits.Builder()
+                .setTimeLeft(timeLeft)
+                .setIncrement(INCREMENT)
+                .build();
+        thinking = true;
+        engine.search(searched, limits, timeLeft, new EngineListener() {
+            //iterations may finish faster than the window redraws, only the last one waiting is shown
+            private final AtomicReference<SearchInfo> latest = new AtomicReference();
+
+            public void iterationFinished(SearchInfo info) {
+                if (latest.getAndSet(info) == null) {
+                    SwingUtilities.invokeLater(new Runnable() {
+                        public void run() {
+                            final SearchInfo info = latest.getAndSet(null);
+                            if (thinking && chessBoard == searched) {
+                                lowerBar.showEngineInfo(info.toString());
+                            }
+                        }
+                    });
+                }
+            }
+
+            public void searchFinished(final Move move) {
+                SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                        //the game went on without the computer (undo, loaded game)
+                        if (chessBoard != searched) {
+                            return;
+                        }
+                        thinking = false;
+                        if (!(move instanceof Move.NullMove)) {
+                            System.out.println(move.toString());
+                            doMove(chessBoard.currentPlayer().makeMove(move), move);
+                        }
+                        checkCheckMate();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * the search for the computer's move is thrown away, its move won't be played
+     */
+    private void cancelComputerMove() {
+        engine.cancel();
+        thinking = false;
+        lowerBar.showEngineInfo("");
+    }
+
     /**
      * saves game to text file
      * @param chessBoard
@@ -335,9 +465,9 @@ class Table {
                     //black that checks if king has any moves that does not lead to check
                     int counter = 0;
                     Collection<Move> kingMoves = chessBoard.currentPlayer().king.getPossibleMoves(chessBoard);
-                    boolean noOtherMoves = kingMoves.size() == chessBoard.currentPlayer().legalMoves.size();
+                    boolean noOtherMoves = kingMoves.size() == chessBoard.currentPlayer().getLegalMoves().size();
                     for (Move m : kingMoves) {
-                        if (!Player.calculateAttacksOnTile(m.getNewCoord(), chessBoard.currentPlayer().getOpponent().getLegalMoves()).isEmpty()) {
+                        if (chessBoard.isSquareAttacked(m.getNewCoord(), chessBoard.currentPlayer().getOpponent().getTeam())) {
                             counter++;
                         }
                     }
@@ -366,7 +496,7 @@ class Table {
         final JMenuItem queenSide = new JMenuItem("Queenside");
         kingSide.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                Collection<Move> legalMoves = chessBoard.currentPlayer().legalMoves;
+                Collection<Move> legalMoves = chessBoard.currentPlayer().getLegalMoves();
                 for (Move move : legalMoves) {
                     if (move instanceof Move.KingSideCastleMove) {
                         final MakingMove transition = chessBoard.currentPlayer().makeMove(move);
@@ -377,7 +507,7 @@ class Table {
         });
         queenSide.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-                Collection<Move> legalMoves = chessBoard.currentPlayer().legalMoves;
+                Collection<Move> legalMoves = chessBoard.currentPlayer().getLegalMoves();
                 for (Move move : legalMoves) {
                     if (move instanceof Move.QueenSideCastleMove) {
                         final MakingMove transition = chessBoard.currentPlayer().makeMove(move);
@@ -441,6 +571,7 @@ class Table {
 
     public class LowerBar extends JPanel {
         Board board;
+        private final JLabel engineInfo = new JLabel("", SwingConstants.CENTER);     // progress of the computer's search
 
         LowerBar(Board board) {
             super(new BorderLayout());
@@ -462,6 +593,7 @@ class Table {
             log.info("Redrawing lower bar");
             removeAll();
             this.add(new JLabel(" Current player: " + board.currentPlayer().toString()), BorderLayout.WEST);
+            this.add(engineInfo, BorderLayout.CENTER);
             this.add(new JLabel("W: " + hoursFormat(TIME_FOR_PLAYER - (STARTING_TIME - curWhiteTime)) +
                     " | B: " + hoursFormat(TIME_FOR_PLAYER - (STARTING_TIME - curBlackTime)) + " "), BorderLayout.EAST);
             validate();
@@ -476,6 +608,14 @@ class Table {
             }
         }
 
+        /**
+         * shows the state of the computer's search, called on the event thread
+         * @param text
+         */
+        void showEngineInfo(String text) {
+            engineInfo.setText(text);
+        }
+
         private String hoursFormat(long i) {
             long minutes = (long)Math.floor(i/60);
             long seconds = i % 60;
@@ -558,7 +698,7 @@ class Table {
                             }
                         });
 
-                    } else if (isLeftMouseButton(e)){                        //left mouse button
+                    } else if (isLeftMouseButton(e) && !thinking) {          //left mouse button, not while the computer thinks
 
                         if (currentTile == null) {
 
@@ -603,35 +743,7 @@ class Table {
 
                             if (AIMode && moveMade) {
                                 System.out.println("AIMode on");
-                                List<Move> possibleMoves = (List<Move>) chessBoard.currentPlayer().legalMoves;
-                                if (chessBoard.currentPlayer().isInCheck()) {
-                                    for (Move m : possibleMoves) {
-                                        final MakingMove moving = chessBoard.currentPlayer().makeMove(m);
-                                        if (moving.getMoveStatus().isDone()) {
-                                            doMove(moving, m);
-                                        }
-                                    }
-                                } else {
-                                    List<Move> attackMoves;
-                                    attackMoves = new ArrayList(Collections.singletonList(new Move.NullMove()));
-                                    Move move2;
-                                    for (Move m2 : possibleMoves) {
-                                        if (m2 instanceof Move.AttackMove) {
-                                            attackMoves.add(m2);
-                                        }
-                                    }
-                                    if (attackMoves.size() > 1) {
-                                        move2 = attackMoves.get(1);
-
-                                    } else {
-                                        int randInd = (int) (Math.random() * possibleMoves.size());
-                                        move2 = possibleMoves.get(randInd);
-                                    }
-                                    System.out.println(move2.toString());
-                                    final MakingMove transition2 = chessBoard.currentPlayer().makeMove(move2);
-                                    doMove(transition2, move2);
-                                }
-                                checkCheckMate();
+                                playComputerMove();
                             }
                         }
 
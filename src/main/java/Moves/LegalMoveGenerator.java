@@ -0,0 +1,280 @@
+package Moves;
+
+import Board.BitBoard;
+import Board.BoardUtils;
+import Board.MagicBitboards;
+import Pieces.Piece;
+
+/**
+ * generates only fully legal packed moves, nothing has to be played to find out whether the own king stays safe
+ *
+ * before generating it finds
+ *  - checkers: enemy pieces attacking the king, with two of them only the king can move, with one the other
+ *    pieces must capture it or step between it and the king
+ *  - pins: own pieces standing alone between the king and an enemy rook, bishop or queen, they can move
+ *    only along the line of the pin
+ *  - king danger: tiles attacked by the enemy with the king taken off the board, so the king can't step
+ *    back along the line of a slider that checks it
+ * en passant is checked separately, it removes two pieces from one row and can uncover the king
+ */
+public final class LegalMoveGenerator {
+
+    LegalMoveGenerator() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int ROOK = Piece.PieceType.ROOK.ordinal();
+    private static final int KNIGHT = Piece.PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = Piece.PieceType.BISHOP.ordinal();
+    private static final int QUEEN = Piece.PieceType.QUEEN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    private static final long[] KING_SIDE_EMPTY = {(1L << 61) | (1L << 62), (1L << 5) | (1L << 6)};
+    private static final long[] QUEEN_SIDE_EMPTY = {(1L << 57) | (1L << 58) | (1L << 59), (1L << 1) | (1L << 2) | (1L << 3)};
+    private static final int[] KING_START = {60, 4};
+    private static final int[] KING_SIDE_RIGHT = {BitBoard.WHITE_KING_SIDE, BitBoard.BLACK_KING_SIDE};
+    private static final int[] QUEEN_SIDE_RIGHT = {BitBoard.WHITE_QUEEN_SIDE, BitBoard.BLACK_QUEEN_SIDE};
+
+    /**
+     * adds all legal moves of the side to move to the list
+     * @param board
+     * @param moves list the moves are added to, it is not cleared
+     */
+    public static void generateLegal(BitBoard board, MoveList moves) {
+        generate(board, moves, false);
+    }
+
+    /**
+     * adds legal captures and promotions of the side to move to the list - the moves that change material,
+     * the search uses them to play out exchanges at the end of searched lines
+     * @param board
+     * @param moves list the moves are added to, it is not cleared
+     */
+    public static void generateLegalCaptures(BitBoard board, MoveList moves) {
+        generate(board, moves, true);
+    }
+
+    /**
+     * @param board
+     * @param moves
+     * @param capturesOnly only captures (en passant too) and promotions are added
+     */
+    private static void generate(BitBoard board, MoveList moves, boolean capturesOnly) {
+        final int us = board.getSideToMove().ordinal();
+        final int them = 1 - us;
+        final long own = board.getOccupancy(us);
+        final long occupied = board.getOccupancy();
+        final long allowed = capturesOnly ? board.getOccupancy(them) : ~own;   //tiles pieces other than pawns may go to
+        final int kingSquare = Long.numberOfTrailingZeros(board.getPieces(us * 6 + KING));
+
+        //the king can always try to step away
+        final long danger = attackedTiles(board, them, occupied & ~(1L << kingSquare));
+        MoveGenerator.addMoves(board, moves, kingSquare, us * 6 + KING, BoardUtils.KING_ATTACKS[kingSquare] & allowed & ~danger);
+
+        final long checkers = board.attackersOf(kingSquare, them, occupied);
+        if (Long.bitCount(checkers) > 1) {
+            return;
+        }
+        long checkMask = -1L;   //tiles where pieces other than the king may go
+        if (checkers != 0) {
+            final int checker = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | BoardUtils.BETWEEN[kingSquare][checker];
+        } else if (!capturesOnly) {
+            generateCastles(board, moves, us, kingSquare, danger);
+        }
+        final long pinned = pinnedPieces(board, kingSquare, us);
+
+        generatePawnMoves(board, moves, us, kingSquare, checkers, checkMask, pinned, capturesOnly);
+
+        long knights = board.getPieces(us * 6 + KNIGHT) & ~pinned; //pinned knight can never move
+        while (knights != 0) {
+            final int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            MoveGenerator.addMoves(board, moves, from, us * 6 + KNIGHT, BoardUtils.KNIGHT_ATTACKS[from] & allowed & checkMask);
+        }
+        long bishops = board.getPieces(us * 6 + BISHOP);
+        while (bishops != 0) {
+            final int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            final long targets = MagicBitboards.bishopAttacks(from, occupied) & allowed & checkMask;
+            MoveGenerator.addMoves(board, moves, from, us * 6 + BISHOP, pinFilter(targets, from, kingSquare, pinned));
+        }
+        long rooks = board.getPieces(us * 6 + ROOK);
+        while (rooks != 0) {
+            final int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            final long targets = MagicBitboards.rookAttacks(from, occupied) & allowed & checkMask;
+            MoveGenerator.addMoves(board, moves, from, us * 6 + ROOK, pinFilter(targets, from, kingSquare, pinned));
+        }
+        long queens = board.getPieces(us * 6 + QUEEN);
+        while (queens != 0) {
+            final int from = Long.numberOfTrailingZeros(queens);
+            queens &= queens - 1;
+            final long targets = MagicBitboards.queenAttacks(from, occupied) & allowed & checkMask;
+            MoveGenerator.addMoves(board, moves, from, us * 6 + QUEEN, pinFilter(targets, from, kingSquare, pinned));
+        }
+    }
+
+    /**
+     * @param board
+     * @return true if the side to move has at least one legal move
+     */
+    public static boolean hasLegalMove(BitBoard board) {
+        final MoveList moves = new MoveList();
+        generateLegal(board, moves);
+        return !moves.isEmpty();
+    }
+
+    private static void generatePawnMoves(BitBoard board, MoveList moves, int us, int kingSquare,
+                                          long checkers, long checkMask, long pinned, boolean capturesOnly) {
+        final int piece = us * 6 + PAWN;
+        final int forward = us == 0 ? -8 : 8;
+        final long enemies = board.getOccupancy(1 - us);
+        final int enPassantSquare = board.getEnPassantSquare();
+
+        long pawns = board.getPieces(piece);
+        while (pawns != 0) {
+            final int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            long targets = 0L;
+            final int to = from + forward;
+            //of the pushes only promotions change material
+            if (board.isEmpty(to) && (!capturesOnly || MoveGenerator.isLastRow(to))) {
+                targets |= 1L << to;
+                if (MoveGenerator.isStartRow(from, us) && board.isEmpty(to + forward)) {
+                    targets |= 1L << (to + forward);
+                }
+            }
+            final long attacks = BoardUtils.PAWN_ATTACK_MASKS[us][from];
+            targets |= attacks & enemies;
+            targets = pinFilter(targets & checkMask, from, kingSquare, pinned);
+
+            while (targets != 0) {
+                final int target = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                final int captured = board.getPiece(target) == BitBoard.NO_PIECE ? PackedMove.NO_CAPTURE : board.getPiece(target);
+                if (MoveGenerator.isLastRow(target)) {
+                    MoveGenerator.addPromotions(moves, from, target, piece, captured);
+                } else {
+                    moves.add(PackedMove.create(from, target, piece, captured, 0,
+                            Math.abs(target - from) == 16 ? PackedMove.PAWN_JUMP : 0));
+                }
+            }
+
+            if (enPassantSquare != BitBoard.NO_SQUARE && (attacks & (1L << enPassantSquare)) != 0 &&
+                    isEnPassantLegal(board, us, from, enPassantSquare, kingSquare, checkers)) {
+                moves.add(PackedMove.create(from, enPassantSquare, piece, (1 - us) * 6 + PAWN, 0, PackedMove.EN_PASSANT));
+            }
+        }
+    }
+
+    /**
+     * en passant is simply played on the occupancy - the captured pawn disappears, our pawn moves,
+     * and then the king must not be attacked by any slider (this covers pins of our pawn and the case when
+     * both pawns stood between the king and a rook on one row), a knight or pawn checker must be the captured pawn
+     */
+    private static boolean isEnPassantLegal(BitBoard board, int us, int from, int to, int kingSquare, long checkers) {
+        final int them = 1 - us;
+        final int capturedSquare = to - (us == 0 ? -8 : 8);
+        final long contactCheckers = checkers & (board.getPieces(them * 6 + KNIGHT) | board.getPieces(them * 6 + PAWN));
+        if ((contactCheckers & ~(1L << capturedSquare)) != 0) {
+            return false;
+        }
+        final long occupied = (board.getOccupancy() & ~(1L << from) & ~(1L << capturedSquare)) | (1L << to);
+        final long queens = board.getPieces(them * 6 + QUEEN);
+        return (MagicBitboards.rookAttacks(kingSquare, occupied) & (board.getPieces(them * 6 + ROOK) | queens)) == 0 &&
+                (MagicBitboards.bishopAttacks(kingSquare, occupied) & (board.getPieces(them * 6 + BISHOP) | queens)) == 0;
+    }
+
+    /**
+     * castles are generated only when the king is not in check, so only the tiles it passes are left
+     */
+    private static void generateCastles(BitBoard board, MoveList moves, int us, int kingSquare, long danger) {
+        final int rights = board.getCastlingRights();
+        if (kingSquare != KING_START[us]) {
+            return;
+        }
+        final int piece = us * 6 + KING;
+        if ((rights & KING_SIDE_RIGHT[us]) != 0 && (board.getOccupancy() & KING_SIDE_EMPTY[us]) == 0 &&
+                (danger & ((1L << (kingSquare + 1)) | (1L << (kingSquare + 2)))) == 0) {
+            moves.add(PackedMove.create(kingSquare, kingSquare + 2, piece, PackedMove.NO_CAPTURE, 0, PackedMove.CASTLE));
+        }
+        if ((rights & QUEEN_SIDE_RIGHT[us]) != 0 && (board.getOccupancy() & QUEEN_SIDE_EMPTY[us]) == 0 &&
+                (danger & ((1L << (kingSquare - 1)) | (1L << (kingSquare - 2)))) == 0) {
+            moves.add(PackedMove.create(kingSquare, kingSquare - 2, piece, PackedMove.NO_CAPTURE, 0, PackedMove.CASTLE));
+        }
+    }
+
+    /**
+     * pinned piece may move only on the line going through the king and itself
+     */
+    private static long pinFilter(long targets, int from, int kingSquare, long pinned) {
+        if ((pinned & (1L << from)) == 0) {
+            return targets;
+        }
+        return targets & BoardUtils.LINE[kingSquare][from];
+    }
+
+    /**
+     * enemy sliders that would attack the king if no own pieces were in the way, a slider with exactly
+     * one own piece between it and the king pins that piece
+     */
+    private static long pinnedPieces(BitBoard board, int kingSquare, int us) {
+        final int them = 1 - us;
+        final long own = board.getOccupancy(us);
+        final long enemies = board.getOccupancy(them);
+        final long queens = board.getPieces(them * 6 + QUEEN);
+        long snipers = (MagicBitboards.rookAttacks(kingSquare, enemies) & (board.getPieces(them * 6 + ROOK) | queens)) |
+                (MagicBitboards.bishopAttacks(kingSquare, enemies) & (board.getPieces(them * 6 + BISHOP) | queens));
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            final int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            final long blockers = BoardUtils.BETWEEN[kingSquare][sniper] & board.getOccupancy();
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    /**
+     * all tiles attacked by given team
+     * @param board
+     * @param team
+     * @param occupied occupancy the sliders are blocked by
+     * @return
+     */
+    static long attackedTiles(BitBoard board, int team, long occupied) {
+        final int first = team * 6;
+        long attacked = 0L;
+        long pieces = board.getPieces(first + PAWN);
+        while (pieces != 0) {
+            attacked |= BoardUtils.PAWN_ATTACK_MASKS[team][Long.numberOfTrailingZeros(pieces)];
+            pieces &= pieces - 1;
+        }
+        pieces = board.getPieces(first + KNIGHT);
+        while (pieces != 0) {
+            attacked |= BoardUtils.KNIGHT_ATTACKS[Long.numberOfTrailingZeros(pieces)];
+            pieces &= pieces - 1;
+        }
+        pieces = board.getPieces(first + BISHOP) | board.getPieces(first + QUEEN);
+        while (pieces != 0) {
+            attacked |= MagicBitboards.bishopAttacks(Long.numberOfTrailingZeros(pieces), occupied);
+            pieces &= pieces - 1;
+        }
+        pieces = board.getPieces(first + ROOK) | board.getPieces(first + QUEEN);
+        while (pieces != 0) {
+            attacked |= MagicBitboards.rookAttacks(Long.numberOfTrailingZeros(pieces), occupied);
+            pieces &= pieces - 1;
+        }
+        pieces = board.getPieces(first + KING);
+        if (pieces != 0) {
+            attacked |= BoardUtils.KING_ATTACKS[Long.numberOfTrailingZeros(pieces)];
+        }
+        return attacked;
+    }
+}
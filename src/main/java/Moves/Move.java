@@ -1,11 +1,14 @@
 package Moves;
 
+import Board.BitBoard;
 import Board.Board;
 import Board.BoardUtils;
+import Board.Zobrist;
 import Pieces.King;
 import Pieces.Pawn;
 import Pieces.Piece;
 import Pieces.Rook;
+import Players.Team;
 
 public abstract class Move {
     protected final Board board;
@@ -58,10 +61,49 @@ public abstract class Move {
 
         builder.setPiece(this.movedPiece.movePiece(this));
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+        builder.setZobristKey(this.zobristKeyAfter());
         return builder.build();
     }
 
 
+    /**
+     * zobrist key of the board after this move, only the pieces, rights and tiles the move changes are
+     * xored into the key of the current board
+     * @return
+     */
+    long zobristKeyAfter() {
+        final int currentCoord = getCurrentCoord();
+        final Team team = this.movedPiece.getPieceTeam();
+        long key = this.board.getZobristKey();
+        key ^= Zobrist.pieceKey(this.movedPiece);
+        key ^= Zobrist.pieceKey(team, this.getArrivingPieceType(), this.newCoord);
+        if (this.getAttackedPiece() != null) {
+            key ^= Zobrist.pieceKey(this.getAttackedPiece());
+        }
+
+        final int castlingRights = this.board.getCastlingRights();
+        key ^= Zobrist.castlingKey(castlingRights);
+        key ^= Zobrist.castlingKey(castlingRights & BitBoard.castlingMask(currentCoord) & BitBoard.castlingMask(this.newCoord));
+
+        key ^= Zobrist.enPassantKey(this.board.getEnPassantSquare());
+        if (this instanceof PawnJump) {
+            //same rule as the board - the tile counts only if an enemy pawn can capture there
+            final int jumpedOver = (currentCoord + this.newCoord) / 2;
+            if ((BoardUtils.PAWN_ATTACK_MASKS[team.ordinal()][jumpedOver] &
+                    this.board.getPieces(team.getOpponent(), Piece.PieceType.PAWN)) != 0) {
+                key ^= Zobrist.enPassantKey(jumpedOver);
+            }
+        }
+        return key ^ Zobrist.turnKey();
+    }
+
+    /**
+     * @return type of the piece standing on the new tile after the move
+     */
+    Piece.PieceType getArrivingPieceType() {
+        return this.movedPiece.getPieceType();
+    }
+
     /**
      * returns algebraic notation
      * @return
@@ -86,6 +128,8 @@ public abstract class Move {
             builder.setPiece(piece);
         }
         builder.setMoveMaker(this.board.currentPlayer().getTeam());
+        builder.setEnPassantPawn(this.board.getEnPassantPawn());
+        builder.setZobristKey(this.board.getZobristKey());
         return builder.build();
     }
 
@@ -136,6 +180,7 @@ public abstract class Move {
 
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
@@ -169,6 +214,7 @@ public abstract class Move {
 
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
@@ -203,6 +249,7 @@ public abstract class Move {
 
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
@@ -237,8 +284,8 @@ public abstract class Move {
             }
             final Pawn movedPawn = (Pawn)this.movedPiece.movePiece(this);
             builder.setPiece(movedPawn);
-            builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
@@ -269,7 +316,9 @@ public abstract class Move {
             }
             final Pawn movedPawn = (Pawn)this.movedPiece.movePiece(this);
             builder.setPiece(movedPawn);
+            builder.setEnPassantPawn(movedPawn);
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
@@ -283,11 +332,21 @@ public abstract class Move {
 
         final Move move;
         final Pawn promotedPawn;
+        final Piece.PieceType promotionType;
 
         public PawnPromotion(Move move) {
+            this(move, Piece.PieceType.QUEEN);
+        }
+
+        public PawnPromotion(Move move, Piece.PieceType promotionType) {
             super (move.getBoard(), move.getPiece(), move.getNewCoord());
             this.move = move;
             this.promotedPawn = (Pawn) move.getPiece();
+            this.promotionType = promotionType;
+        }
+
+        public Piece.PieceType getPromotionType() {
+            return this.promotionType;
         }
 
         @Override
@@ -303,11 +362,17 @@ public abstract class Move {
             for (Piece piece : newBoard.currentPlayer().getOpponent().getActivePieces()) {
                 builder.setPiece(piece);
             }
-            builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
+            builder.setPiece(this.promotedPawn.getPromotionPiece(this.promotionType).movePiece(this));
             builder.setMoveMaker(newBoard.currentPlayer().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
+        @Override
+        Piece.PieceType getArrivingPieceType() {
+            return this.promotionType;
+        }
+
         @Override
         public boolean isAttack() {
             return this.move.isAttack();
@@ -321,7 +386,7 @@ public abstract class Move {
         @Override
         public String toString() {
             return BoardUtils.getPosAtCoord(this.movedPiece.getPiecePosition()) + "-" +
-                    BoardUtils.getPosAtCoord(this.getNewCoord()) + "=Q";
+                    BoardUtils.getPosAtCoord(this.getNewCoord()) + "=" + this.promotionType;
         }
     }
 
@@ -338,6 +403,13 @@ public abstract class Move {
             this.castleRookDest = castleRookDest;
         }
 
+        @Override
+        long zobristKeyAfter() {
+            return super.zobristKeyAfter() ^
+                    Zobrist.pieceKey(this.castleRook) ^
+                    Zobrist.pieceKey(this.castleRook.getPieceTeam(), Piece.PieceType.ROOK, this.castleRookDest);
+        }
+
         @Override
         public Board execute() {
             final Board.Builder builder = new Board.Builder();
@@ -350,8 +422,9 @@ public abstract class Move {
                 builder.setPiece(piece);
             }
             builder.setPiece(this.movedPiece.movePiece(this)); //the king
-            builder.setPiece(new Rook(this.castleRookDest, this.castleRook.getPieceTeam()));
+            builder.setPiece(new Rook(this.castleRookDest, this.castleRook.getPieceTeam(), false));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
@@ -378,8 +451,9 @@ public abstract class Move {
                 builder.setPiece(piece);
             }
             builder.setPiece(this.movedPiece.movePiece(this)); //the king
-            builder.setPiece(new Rook(this.castleRookDest, this.castleRook.getPieceTeam()));
+            builder.setPiece(new Rook(this.castleRookDest, this.castleRook.getPieceTeam(), false));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
@@ -412,8 +486,9 @@ public abstract class Move {
                 builder.setPiece(piece);
             }
             builder.setPiece(this.movedPiece.movePiece(this)); //the king
-            builder.setPiece(new Rook(this.castleRookDest, this.castleRook.getPieceTeam()));
+            builder.setPiece(new Rook(this.castleRookDest, this.castleRook.getPieceTeam(), false));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getTeam());
+            builder.setZobristKey(this.zobristKeyAfter());
             return builder.build();
         }
 
@@ -446,14 +521,20 @@ public abstract class Move {
         }
     }
 
+    /**
+     * finds the move between given tiles, promotion to queen is chosen when there are more promotions
+     * @param board
+     * @param currentCoord
+     * @param newCoord
+     * @return
+     */
     public static Move createMove(final Board board, final int currentCoord, final int newCoord) {
-        Move ret = new NullMove();
         for (Move move : board.getAllLegalMoves()) {
             if (move.getNewCoord() == newCoord && move.getCurrentCoord() == currentCoord) {
-                ret = move;
+                return move;
             }
         }
-        return ret;
+        return new NullMove();
     }
 }
 
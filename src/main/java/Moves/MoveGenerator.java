@@ -0,0 +1,168 @@
+package Moves;
+
+import Board.BitBoard;
+import Board.BoardUtils;
+import Board.MagicBitboards;
+import Pieces.Piece;
+
+/**
+ * generates packed moves of the side to move straight from the bitboards into a MoveList
+ *
+ * moves are pseudo-legal - they follow the rules of the pieces, but they can leave the own king in check,
+ * castles are generated only if the king doesn't start, pass or end on an attacked tile
+ */
+public final class MoveGenerator {
+
+    MoveGenerator() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    private static final int PAWN = Piece.PieceType.PAWN.ordinal();
+    private static final int ROOK = Piece.PieceType.ROOK.ordinal();
+    private static final int KNIGHT = Piece.PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = Piece.PieceType.BISHOP.ordinal();
+    private static final int QUEEN = Piece.PieceType.QUEEN.ordinal();
+    private static final int KING = Piece.PieceType.KING.ordinal();
+
+    //tiles between king and rook that must be empty, indexed by team
+    private static final long[] KING_SIDE_EMPTY = {(1L << 61) | (1L << 62), (1L << 5) | (1L << 6)};
+    private static final long[] QUEEN_SIDE_EMPTY = {(1L << 57) | (1L << 58) | (1L << 59), (1L << 1) | (1L << 2) | (1L << 3)};
+    private static final int[] KING_START = {60, 4};
+    private static final int[] KING_SIDE_RIGHT = {BitBoard.WHITE_KING_SIDE, BitBoard.BLACK_KING_SIDE};
+    private static final int[] QUEEN_SIDE_RIGHT = {BitBoard.WHITE_QUEEN_SIDE, BitBoard.BLACK_QUEEN_SIDE};
+
+    /**
+     * adds all pseudo-legal moves of the side to move to the list
+     * @param board
+     * @param moves list the moves are added to, it is not cleared
+     */
+    public static void generatePseudoLegal(BitBoard board, MoveList moves) {
+        final int us = board.getSideToMove().ordinal();
+        final long own = board.getOccupancy(us);
+        final long occupied = board.getOccupancy();
+
+        generatePawnMoves(board, moves, us);
+
+        long knights = board.getPieces(us * 6 + KNIGHT);
+        while (knights != 0) {
+            final int from = Long.numberOfTrailingZeros(knights);
+            knights &= knights - 1;
+            addMoves(board, moves, from, us * 6 + KNIGHT, BoardUtils.KNIGHT_ATTACKS[from] & ~own);
+        }
+        long bishops = board.getPieces(us * 6 + BISHOP);
+        while (bishops != 0) {
+            final int from = Long.numberOfTrailingZeros(bishops);
+            bishops &= bishops - 1;
+            addMoves(board, moves, from, us * 6 + BISHOP, MagicBitboards.bishopAttacks(from, occupied) & ~own);
+        }
+        long rooks = board.getPieces(us * 6 + ROOK);
+        while (rooks != 0) {
+            final int from = Long.numberOfTrailingZeros(rooks);
+            rooks &= rooks - 1;
+            addMoves(board, moves, from, us * 6 + ROOK, MagicBitboards.rookAttacks(from, occupied) & ~own);
+        }
+        long queens = board.getPieces(us * 6 + QUEEN);
+        while (queens != 0) {
+            final int from = Long.numberOfTrailingZeros(queens);
+            queens &= queens - 1;
+            addMoves(board, moves, from, us * 6 + QUEEN, MagicBitboards.queenAttacks(from, occupied) & ~own);
+        }
+
+        final long king = board.getPieces(us * 6 + KING);
+        if (king != 0) {
+            final int from = Long.numberOfTrailingZeros(king);
+            addMoves(board, moves, from, us * 6 + KING, BoardUtils.KING_ATTACKS[from] & ~own);
+            generateCastles(board, moves, us, from);
+        }
+    }
+
+    private static void generatePawnMoves(BitBoard board, MoveList moves, int us) {
+        final int piece = us * 6 + PAWN;
+        final int forward = us == 0 ? -8 : 8;
+        final long enemies = board.getOccupancy(1 - us);
+        final int enPassantSquare = board.getEnPassantSquare();
+
+        long pawns = board.getPieces(piece);
+        while (pawns != 0) {
+            final int from = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+
+            final int to = from + forward;
+            if (board.isEmpty(to)) {
+                if (isLastRow(to)) {
+                    addPromotions(moves, from, to, piece, PackedMove.NO_CAPTURE);
+                } else {
+                    moves.add(PackedMove.create(from, to, piece, PackedMove.NO_CAPTURE, 0, 0));
+                    if (isStartRow(from, us) && board.isEmpty(to + forward)) {
+                        moves.add(PackedMove.create(from, to + forward, piece, PackedMove.NO_CAPTURE, 0, PackedMove.PAWN_JUMP));
+                    }
+                }
+            }
+
+            final long attacks = BoardUtils.PAWN_ATTACK_MASKS[us][from];
+            long captures = attacks & enemies;
+            while (captures != 0) {
+                final int target = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                if (isLastRow(target)) {
+                    addPromotions(moves, from, target, piece, board.getPiece(target));
+                } else {
+                    moves.add(PackedMove.create(from, target, piece, board.getPiece(target), 0, 0));
+                }
+            }
+            if (enPassantSquare != BitBoard.NO_SQUARE && (attacks & (1L << enPassantSquare)) != 0) {
+                moves.add(PackedMove.create(from, enPassantSquare, piece, (1 - us) * 6 + PAWN, 0, PackedMove.EN_PASSANT));
+            }
+        }
+    }
+
+    /**
+     * the king must not be in check and the tiles it passes must not be attacked, the rook's tiles don't matter
+     */
+    private static void generateCastles(BitBoard board, MoveList moves, int us, int kingSquare) {
+        final int rights = board.getCastlingRights();
+        if (kingSquare != KING_START[us] || (rights & (KING_SIDE_RIGHT[us] | QUEEN_SIDE_RIGHT[us])) == 0) {
+            return;
+        }
+        final int them = 1 - us;
+        if (board.isSquareAttacked(kingSquare, them)) {
+            return;
+        }
+        final int piece = us * 6 + KING;
+        if ((rights & KING_SIDE_RIGHT[us]) != 0 && (board.getOccupancy() & KING_SIDE_EMPTY[us]) == 0 &&
+                !board.isSquareAttacked(kingSquare + 1, them) && !board.isSquareAttacked(kingSquare + 2, them)) {
+            moves.add(PackedMove.create(kingSquare, kingSquare + 2, piece, PackedMove.NO_CAPTURE, 0, PackedMove.CASTLE));
+        }
+        if ((rights & QUEEN_SIDE_RIGHT[us]) != 0 && (board.getOccupancy() & QUEEN_SIDE_EMPTY[us]) == 0 &&
+                !board.isSquareAttacked(kingSquare - 1, them) && !board.isSquareAttacked(kingSquare - 2, them)) {
+            moves.add(PackedMove.create(kingSquare, kingSquare - 2, piece, PackedMove.NO_CAPTURE, 0, PackedMove.CASTLE));
+        }
+    }
+
+    static void addMoves(BitBoard board, MoveList moves, int from, int piece, long targets) {
+        while (targets != 0) {
+            final int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            final int captured = board.getPiece(to);
+            moves.add(PackedMove.create(from, to, piece, captured == BitBoard.NO_PIECE ? PackedMove.NO_CAPTURE : captured, 0, 0));
+        }
+    }
+
+    /**
+     * queen first, it is the best choice almost every time
+     */
+    static void addPromotions(MoveList moves, int from, int to, int piece, int captured) {
+        moves.add(PackedMove.create(from, to, piece, captured, QUEEN, 0));
+        moves.add(PackedMove.create(from, to, piece, captured, KNIGHT, 0));
+        moves.add(PackedMove.create(from, to, piece, captured, ROOK, 0));
+        moves.add(PackedMove.create(from, to, piece, captured, BISHOP, 0));
+    }
+
+    static boolean isLastRow(int square) {
+        return square < 8 || square >= 56;
+    }
+
+    static boolean isStartRow(int square, int team) {
+        return team == 0 ? square >= 48 && square < 56 : square >= 8 && square < 16;
+    }
+}
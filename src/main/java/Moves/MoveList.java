@@ -0,0 +1,82 @@
+package Moves;
+
+/**
+ * reusable buffer of packed moves - the search keeps one list for every ply and only clears it,
+ * so generating moves doesn't allocate anything
+ */
+public final class MoveList {
+
+    public static final int MAX_MOVES = 256; //no chess position has more legal moves than this
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this.moves = new int[MAX_MOVES];
+        this.size = 0;
+    }
+
+    /**
+     * one list for every ply of the search
+     * @param plies
+     * @return
+     */
+    public static MoveList[] perPly(int plies) {
+        final MoveList[] lists = new MoveList[plies];
+        for (int i = 0; i < plies; i++) {
+            lists[i] = new MoveList();
+        }
+        return lists;
+    }
+
+    public void add(int move) {
+        this.moves[this.size++] = move;
+    }
+
+    public int get(int index) {
+        return this.moves[index];
+    }
+
+    public void set(int index, int move) {
+        this.moves[index] = move;
+    }
+
+    public void swap(int first, int second) {
+        final int move = this.moves[first];
+        this.moves[first] = this.moves[second];
+        this.moves[second] = move;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.size; i++) {
+            if (i > 0) {
+                builder.append(" ");
+            }
+            builder.append(PackedMove.toString(this.moves[i]));
+        }
+        return builder.toString();
+    }
+}
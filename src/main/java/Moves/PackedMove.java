@@ -0,0 +1,161 @@
+package Moves;
+
+import Board.Board;
+import Board.BoardUtils;
+import Pieces.Piece;
+
+/**
+ * move packed into one int, so the engine can keep moves in primitive arrays instead of creating Move objects
+ *
+ *  bits  0- 5  tile the piece moves from
+ *  bits  6-11  tile the piece moves to
+ *  bits 12-15  moved piece (BitBoard.pieceIndex)
+ *  bits 16-19  captured piece, NO_CAPTURE if nothing is captured
+ *  bits 20-22  piece type the pawn is promoted to, 0 if it is not a promotion (pawn can't be a promotion piece)
+ *  bits 23-25  flags - en passant, castle, pawn jump
+ *
+ * Move objects are created from packed moves only when the GUI or PGN layer needs them, see toMove
+ */
+public final class PackedMove {
+
+    PackedMove() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    public static final int NONE = 0;          //from and to are the same tile, no real move looks like this
+    public static final int NO_CAPTURE = 12;
+
+    public static final int EN_PASSANT = 1 << 23;
+    public static final int CASTLE = 1 << 24;
+    public static final int PAWN_JUMP = 1 << 25;
+
+    private static final Piece.PieceType[] PIECE_TYPES = Piece.PieceType.values();
+
+    /**
+     * @param from
+     * @param to
+     * @param piece moved piece, index as in BitBoard
+     * @param captured captured piece, NO_CAPTURE if there is none
+     * @param promotion ordinal of the promotion piece type, 0 if the move is not a promotion
+     * @param flags EN_PASSANT, CASTLE or PAWN_JUMP
+     * @return
+     */
+    public static int create(int from, int to, int piece, int captured, int promotion, int flags) {
+        return from | (to << 6) | (piece << 12) | (captured << 16) | (promotion << 20) | flags;
+    }
+
+    public static int getFrom(int move) {
+        return move & 0x3F;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int getPiece(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static int getCaptured(int move) {
+        return (move >>> 16) & 0xF;
+    }
+
+    /**
+     * @param move
+     * @return ordinal of the promotion piece type, 0 if the move is not a promotion
+     */
+    public static int getPromotion(int move) {
+        return (move >>> 20) & 0x7;
+    }
+
+    /**
+     * @param move
+     * @return promotion piece type, null if the move is not a promotion
+     */
+    public static Piece.PieceType getPromotionType(int move) {
+        final int promotion = getPromotion(move);
+        return promotion == 0 ? null : PIECE_TYPES[promotion];
+    }
+
+    public static boolean isCapture(int move) {
+        return getCaptured(move) != NO_CAPTURE;
+    }
+
+    public static boolean isPromotion(int move) {
+        return getPromotion(move) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isPawnJump(int move) {
+        return (move & PAWN_JUMP) != 0;
+    }
+
+    /**
+     * captures and promotions change the material, everything else is quiet
+     * @param move
+     * @return
+     */
+    public static boolean isQuiet(int move) {
+        return !isCapture(move) && !isPromotion(move);
+    }
+
+    /**
+     * finds the Move object of the board with the same tiles and promotion piece
+     * @param board board the move is played on
+     * @param move
+     * @return Move of the board, NullMove if the board doesn't have such move
+     */
+    public static Move toMove(Board board, int move) {
+        for (final Move candidate : board.currentPlayer().getLegalMoves()) {
+            if (candidate.getMovedPiece().getPiecePosition() == getFrom(move) && candidate.getNewCoord() == getTo(move) &&
+                    promotionType(candidate) == getPromotionType(move)) {
+                return candidate;
+            }
+        }
+        return new Move.NullMove();
+    }
+
+    private static Piece.PieceType promotionType(Move move) {
+        return move instanceof Move.PawnPromotion ? ((Move.PawnPromotion) move).getPromotionType() : null;
+    }
+
+    /**
+     * finds the packed move with the same tiles as the Move object, used when the GUI hands a move to the engine
+     * @param moves moves generated for the position the move is played in
+     * @param move
+     * @return packed move, NONE if there is no such move
+     */
+    public static int fromMove(MoveList moves, Move move) {
+        final int from = move.getMovedPiece().getPiecePosition();
+        for (int i = 0; i < moves.size(); i++) {
+            final int packed = moves.get(i);
+            if (getFrom(packed) == from && getTo(packed) == move.getNewCoord() &&
+                    getPromotionType(packed) == promotionType(move)) {
+                return packed;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * coordinate notation, e.g. e2e4 or e7e8q
+     * @param move
+     * @return
+     */
+    public static String toString(int move) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(BoardUtils.getPosAtCoord(getFrom(move)));
+        builder.append(BoardUtils.getPosAtCoord(getTo(move)));
+        if (isPromotion(move)) {
+            builder.append(PIECE_TYPES[getPromotion(move)].toString().toLowerCase());
+        }
+        return builder.toString();
+    }
+}
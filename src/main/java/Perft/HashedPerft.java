@@ -0,0 +1,202 @@
+package Perft;
+
+import Board.BitBoard;
+import Board.Board;
+import Moves.LegalMoveGenerator;
+import Moves.MoveList;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * perft that remembers counts of positions it has already counted - the same position is reached by many move orders
+ * (transpositions) and its subtree is the same every time, so the count is looked up by the zobrist key
+ * in a PerftCache shared by all threads
+ *
+ * the tree is walked on a BitBoard with make/unmake and strictly legal moves, nodes at depth 1 are counted as
+ * the number of legal moves; without the cache (0 MB) it is the plain count the speedup is compared to
+ *
+ * usage:
+ *  HashedPerft std|boardFile depth [hashMB] [threads] [compare]
+ */
+public class HashedPerft {
+
+    private static final int DEFAULT_HASH_MB = 256;
+    private static final int MAX_PLY = 64;
+
+    private final PerftCache cache;
+    private final int threads;
+    private long probes;
+    private long hits;
+
+    /**
+     * @param hashMegabytes size of the cache, 0 counts without it
+     * @param threads threads counting subtrees of root moves
+     */
+    public HashedPerft(int hashMegabytes, int threads) {
+        this.cache = hashMegabytes > 0 ? new PerftCache(hashMegabytes) : null;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param board
+     * @param depth
+     * @return number of leaf nodes at given depth
+     */
+    public long perft(Board board, final int depth) {
+        this.probes = 0;
+        this.hits = 0;
+        final BitBoard root = board.getBitBoard();
+        if (depth <= 1) {
+            return new Counter(root).count(depth, 0);
+        }
+        final MoveList rootMoves = new MoveList();
+        LegalMoveGenerator.generateLegal(root, rootMoves);
+
+        final ForkJoinPool pool = new ForkJoinPool(this.threads);
+        try {
+            final List<Callable<Counter>> tasks = new ArrayList();
+            for (int i = 0; i < rootMoves.size(); i++) {
+                final int move = rootMoves.get(i);
+                tasks.add(new Callable<Counter>() {
+                    public Counter call() {
+                        final Counter counter = new Counter(new BitBoard(root));
+                        counter.board.makeMove(move);
+                        counter.nodes = counter.count(depth - 1, 1);
+                        return counter;
+                    }
+                });
+            }
+            long nodes = 0;
+            for (final Future<Counter> result : pool.invokeAll(tasks)) {
+                final Counter counter = result.get();
+                nodes += counter.nodes;
+                this.probes += counter.probes;
+                this.hits += counter.hits;
+            }
+            return nodes;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return cache lookups during the last perft
+     */
+    public long getProbes() {
+        return this.probes;
+    }
+
+    /**
+     * @return lookups that found the count during the last perft
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    public PerftCache getCache() {
+        return this.cache;
+    }
+
+    /**
+     * walks the tree of one thread, with its own board and move lists
+     */
+    private class Counter {
+        private final BitBoard board;
+        private final MoveList[] moves = MoveList.perPly(MAX_PLY);
+        private long nodes;
+        private long probes;
+        private long hits;
+
+        Counter(BitBoard board) {
+            this.board = board;
+        }
+
+        long count(int depth, int ply) {
+            if (depth == 0) {
+                return 1;
+            }
+            final MoveList list = this.moves[ply];
+            list.clear();
+            final long key = this.board.getZobristKey();
+            if (depth > 1 && cache != null) {
+                this.probes++;
+                final long stored = cache.probe(key, depth);
+                if (stored >= 0) {
+                    this.hits++;
+                    return stored;
+                }
+            }
+            LegalMoveGenerator.generateLegal(this.board, list);
+            if (depth == 1) {
+                return list.size();
+            }
+
+            long nodes = 0;
+            for (int i = 0; i < list.size(); i++) {
+                this.board.makeMove(list.get(i));
+                nodes += count(depth - 1, ply + 1);
+                this.board.unmakeMove();
+            }
+            if (cache != null) {
+                cache.store(key, depth, nodes);
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * counts given depth with the cache and, if asked, without it, and prints times, hit rate and speedup
+     * @param board
+     * @param depth
+     * @param hashMegabytes
+     * @param threads
+     * @param compare count also without the cache
+     * @param out
+     */
+    public static void run(Board board, int depth, int hashMegabytes, int threads, boolean compare, PrintStream out) {
+        //shallow count first, so the measured times don't include compiling the hot code
+        new HashedPerft(0, threads).perft(board, Math.min(depth, 4));
+
+        final HashedPerft hashed = new HashedPerft(hashMegabytes, threads);
+        long start = System.nanoTime();
+        final long nodes = hashed.perft(board, depth);
+        final double hashedTime = (System.nanoTime() - start) / 1e9;
+        out.println(String.format("hashed  depth %d  nodes %,d  time %.3f s  %,.0f nodes/s  cache %d MB (%,d entries)  probes %,d  hits %,d (%.1f %%)",
+                depth, nodes, hashedTime, nodes / hashedTime, hashMegabytes, hashed.getCache() == null ? 0 : hashed.getCache().getCapacity(),
+                hashed.getProbes(), hashed.getHits(), hashed.getProbes() == 0 ? 0.0 : 100.0 * hashed.getHits() / hashed.getProbes()));
+
+        if (compare) {
+            start = System.nanoTime();
+            final long plainNodes = new HashedPerft(0, threads).perft(board, depth);
+            final double plainTime = (System.nanoTime() - start) / 1e9;
+            out.println(String.format("plain   depth %d  nodes %,d  time %.3f s  %,.0f nodes/s%s",
+                    depth, plainNodes, plainTime, plainNodes / plainTime, plainNodes == nodes ? "" : "  DIFFERENT COUNT"));
+            out.println(String.format("speedup %.2f", plainTime / hashedTime));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: HashedPerft std|boardFile depth [hashMB] [threads] [compare]");
+            System.exit(2);
+        }
+        final Board board = Perft.loadBoard(args[0]);
+        final int depth = Integer.parseInt(args[1]);
+        final int hashMegabytes = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_HASH_MB;
+        final int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        final boolean compare = args.length > 4 && "compare".equals(args[4]);
+        run(board, depth, hashMegabytes, threads, compare, System.err);
+    }
+}
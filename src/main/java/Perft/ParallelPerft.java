@@ -0,0 +1,146 @@
+package Perft;
+
+import Board.Board;
+import Moves.MakingMove;
+import Moves.Move;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * perft counted by more threads - boards are immutable, so subtrees of different moves can be counted at the same
+ * time without any locking, the work is split in a ForkJoinPool at the root and at every ply above the split depth,
+ * below it every task counts its subtree sequentially
+ *
+ * running it with 1, 2, 4... threads shows how well the counting scales, with all threads sharing boards it also
+ * checks that nothing in Board, Player or Move changes after a board is built
+ *
+ * usage:
+ *  ParallelPerft std|boardFile depth [splitDepth] [maxThreads]
+ */
+public class ParallelPerft {
+
+    private static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    /**
+     * @param threads number of threads of the pool
+     * @param splitDepth plies from the root where subtrees are split into separate tasks, at least 1 (only root moves)
+     */
+    public ParallelPerft(int threads, int splitDepth) {
+        if (splitDepth < 1) {
+            throw new IllegalArgumentException("Split depth must be at least 1");
+        }
+        this.pool = new ForkJoinPool(threads);
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * @param board
+     * @param depth
+     * @return number of leaf nodes at given depth, the same as Perft.perft
+     */
+    public long perft(Board board, int depth) {
+        return this.pool.invoke(new PerftTask(board, depth, 0));
+    }
+
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+
+    private class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth;
+        private final int ply;
+
+        PerftTask(Board board, int depth, int ply) {
+            this.board = board;
+            this.depth = depth;
+            this.ply = ply;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.depth <= 1 || this.ply >= splitDepth) {
+                return Perft.perft(this.board, this.depth);
+            }
+            final List<PerftTask> tasks = new ArrayList<PerftTask>();
+            for (final Move move : this.board.currentPlayer().getLegalMoves()) {
+                final MakingMove transition = this.board.currentPlayer().makeMove(move);
+                if (transition.getMoveStatus().isDone()) {
+                    final PerftTask task = new PerftTask(transition.getNewBoard(), this.depth - 1, this.ply + 1);
+                    task.fork();
+                    tasks.add(task);
+                }
+            }
+            long nodes = 0;
+            for (final PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * counts the same position with 1, 2, 4... threads, speedup is the time with one thread divided by the time
+     * with more threads, efficiency is the speedup divided by the number of threads
+     * @param board
+     * @param depth
+     * @param splitDepth
+     * @param maxThreads
+     * @param out
+     */
+    public static void runScaling(Board board, int depth, int splitDepth, int maxThreads, PrintStream out) {
+        //one shallower count first, so the time with one thread doesn't include compiling the hot code
+        Perft.perft(board, Math.max(1, depth - 1));
+
+        double singleThreadTime = 0;
+        long expectedNodes = -1;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            final ParallelPerft perft = new ParallelPerft(threads, splitDepth);
+            final long start = System.nanoTime();
+            final long nodes = perft.perft(board, depth);
+            final double time = (System.nanoTime() - start) / 1e9;
+            perft.shutdown();
+
+            if (threads == 1) {
+                singleThreadTime = time;
+                expectedNodes = nodes;
+            }
+            final double speedup = singleThreadTime / time;
+            out.println(String.format("threads %3d  nodes %,15d  time %9.3f s  %,12.0f nodes/s  speedup %6.2f  efficiency %5.1f %%%s",
+                    threads, nodes, time, nodes / time, speedup, 100 * speedup / threads,
+                    nodes == expectedNodes ? "" : "  DIFFERENT COUNT"));
+        }
+    }
+
+    /**
+     * powers of two, the last step is maxThreads itself
+     */
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: ParallelPerft std|boardFile depth [splitDepth] [maxThreads]");
+            System.exit(2);
+        }
+        final Board board = Perft.loadBoard(args[0]);
+        final int depth = Integer.parseInt(args[1]);
+        final int splitDepth = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SPLIT_DEPTH;
+        final int maxThreads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        runScaling(board, depth, splitDepth, maxThreads, System.err);
+    }
+}
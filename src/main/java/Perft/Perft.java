@@ -0,0 +1,233 @@
+package Perft;
+
+import Board.Board;
+import Board.BoardUtils;
+import Moves.MakingMove;
+import Moves.Move;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * perft - counts all leaf nodes of the tree of legal moves up to given depth, the counts are known for many
+ * positions, so every mistake in move generation (castling, en passant, promotions, pins) shows up as a wrong number,
+ * and nodes per second say how fast the generation is
+ *
+ * positions are built the same way as in the game (createStandardBoard, createCustomBoard) and moves are played
+ * by Player.makeMove, so the whole path used by the GUI is measured
+ *
+ * usage:
+ *  Perft std|boardFile depth [divide]     counts for depth 1..depth, divide shows counts under every root move
+ *  Perft suite [suiteFile] [maxDepth]     checks the reference positions, exit code 1 if some count is wrong
+ */
+public class Perft {
+
+    private static final String DEFAULT_SUITE = "src/perft/suite.txt";
+    private static final int DEFAULT_SUITE_DEPTH = 3;
+
+    Perft() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    /**
+     * @param board
+     * @param depth
+     * @return number of leaf nodes at given depth
+     */
+    public static long perft(Board board, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MakingMove transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                nodes += depth == 1 ? 1 : perft(transition.getNewBoard(), depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @param board
+     * @param depth
+     * @return leaf nodes under every legal root move, in the order the moves were generated
+     */
+    public static Map<String, Long> divide(Board board, int depth) {
+        final Map<String, Long> counts = new LinkedHashMap();
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MakingMove transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                counts.put(moveText(move), perft(transition.getNewBoard(), depth - 1));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * coordinate notation (e2e4, e7e8q) - unlike the algebraic one it is the same in every perft tool,
+     * so divides can be compared line by line
+     * @param move
+     * @return
+     */
+    public static String moveText(Move move) {
+        String text = BoardUtils.getPosAtCoord(move.getMovedPiece().getPiecePosition()) + BoardUtils.getPosAtCoord(move.getNewCoord());
+        if (move instanceof Move.PawnPromotion) {
+            text += ((Move.PawnPromotion) move).getPromotionType().toString().toLowerCase();
+        }
+        return text;
+    }
+
+    /**
+     * @param name "std" for the standard starting position, path to a board file otherwise
+     * @return
+     * @throws IOException
+     */
+    public static Board loadBoard(String name) throws IOException {
+        if ("std".equals(name)) {
+            return Board.createStandardBoard();
+        }
+        return Board.createCustomBoard(name);
+    }
+
+    /**
+     * prints counts for every depth up to given depth, with time and nodes per second
+     * @param board
+     * @param depth
+     * @param out
+     */
+    public static void run(Board board, int depth, PrintStream out) {
+        for (int d = 1; d <= depth; d++) {
+            final long start = System.nanoTime();
+            final long nodes = perft(board, d);
+            final long time = System.nanoTime() - start;
+            out.println(String.format("depth %2d  nodes %,15d  time %10.3f s  %,12.0f nodes/s",
+                    d, nodes, time / 1e9, nodes / (time / 1e9)));
+        }
+    }
+
+    /**
+     * prints the divide of given depth
+     * @param board
+     * @param depth
+     * @param out
+     */
+    public static void runDivide(Board board, int depth, PrintStream out) {
+        final long start = System.nanoTime();
+        long total = 0;
+        final Map<String, Long> counts = divide(board, depth);
+        for (final Map.Entry<String, Long> entry : counts.entrySet()) {
+            out.println(entry.getKey() + ": " + entry.getValue());
+            total += entry.getValue();
+        }
+        final long time = System.nanoTime() - start;
+        out.println(String.format("moves %d  nodes %,d  time %.3f s  %,.0f nodes/s",
+                counts.size(), total, time / 1e9, total / (time / 1e9)));
+    }
+
+    /**
+     * runs the reference positions up to given depth
+     * @param suiteFile
+     * @param maxDepth
+     * @param out
+     * @return number of wrong counts
+     * @throws IOException
+     */
+    public static int runSuite(String suiteFile, int maxDepth, PrintStream out) throws IOException {
+        int failures = 0;
+        long totalNodes = 0;
+        long totalTime = 0;
+        for (final SuiteEntry entry : readSuite(suiteFile)) {
+            final Board board = loadBoard(entry.board);
+            for (int d = 1; d <= Math.min(maxDepth, entry.expected.length); d++) {
+                final long start = System.nanoTime();
+                final long nodes = perft(board, d);
+                final long time = System.nanoTime() - start;
+                totalNodes += nodes;
+                totalTime += time;
+                final boolean ok = nodes == entry.expected[d - 1];
+                if (!ok) {
+                    failures++;
+                }
+                out.println(String.format("%-5s %-14s depth %d  expected %,13d  got %,13d  %,12.0f nodes/s",
+                        ok ? "OK" : "FAIL", entry.name, d, entry.expected[d - 1], nodes, nodes / (time / 1e9)));
+            }
+        }
+        out.println(String.format("%s  nodes %,d  time %.3f s  %,.0f nodes/s",
+                failures == 0 ? "all counts correct" : failures + " wrong counts", totalNodes, totalTime / 1e9, totalNodes / (totalTime / 1e9)));
+        return failures;
+    }
+
+    /**
+     * every line: board ("std" or file relative to the suite file) and expected counts from depth 1,
+     * empty lines and lines starting with # are skipped
+     * @param suiteFile
+     * @return
+     * @throws IOException
+     */
+    static List<SuiteEntry> readSuite(String suiteFile) throws IOException {
+        final File file = new File(suiteFile);
+        final List<SuiteEntry> entries = new ArrayList();
+        final BufferedReader br = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = br.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] parts = line.split("\\s+");
+                final long[] expected = new long[parts.length - 1];
+                for (int i = 1; i < parts.length; i++) {
+                    expected[i - 1] = Long.parseLong(parts[i]);
+                }
+                final String board = "std".equals(parts[0]) ? parts[0] : new File(file.getParentFile(), parts[0]).getPath();
+                entries.add(new SuiteEntry(parts[0], board, expected));
+            }
+        } finally {
+            br.close();
+        }
+        return entries;
+    }
+
+    static class SuiteEntry {
+        final String name;
+        final String board;
+        final long[] expected;
+
+        SuiteEntry(String name, String board, long[] expected) {
+            this.name = name;
+            this.board = board;
+            this.expected = expected;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("usage: Perft std|boardFile depth [divide]");
+            System.err.println("       Perft suite [suiteFile] [maxDepth]");
+            System.exit(2);
+        }
+        //custom boards are echoed to standard output while they are read, results go to standard error
+        final PrintStream out = System.err;
+        if ("suite".equals(args[0])) {
+            final String suiteFile = args.length > 1 ? args[1] : DEFAULT_SUITE;
+            final int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_SUITE_DEPTH;
+            System.exit(runSuite(suiteFile, maxDepth, out) == 0 ? 0 : 1);
+        }
+        final Board board = loadBoard(args[0]);
+        final int depth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SUITE_DEPTH;
+        if (args.length > 2 && "divide".equals(args[2])) {
+            runDivide(board, depth, out);
+        } else {
+            run(board, depth, out);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package Perft;
+
+import java.util.Arrays;
+
+/**
+ * fixed-size table of (zobrist key, depth) -> node count shared by all perft threads without any locks
+ *
+ * every bucket has two entries of two longs - the key xored with the data and the data (node count and depth),
+ * a reader accepts an entry only if the xor of both longs gives its key, so an entry half-written by another
+ * thread is simply a miss; the first entry of a bucket keeps the deepest count (it costs the most to recompute),
+ * the second one is replaced always
+ */
+public class PerftCache {
+
+    public static final int MAX_MEGABYTES = 8192;   //the table is one array, it can't have 2^31 longs
+
+    private static final int DEPTH_BITS = 8;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+    private static final int LONGS_PER_BUCKET = 4;
+
+    private final long[] table;
+    private final int bucketMask;
+
+    /**
+     * @param megabytes size of the table, rounded down to a power of two number of buckets, at most MAX_MEGABYTES
+     */
+    public PerftCache(int megabytes) {
+        if (megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Perft cache can have at most " + MAX_MEGABYTES + " MB, not " + megabytes);
+        }
+        final long bytes = Math.max(1L, megabytes) * 1024 * 1024;
+        final long buckets = Long.highestOneBit(bytes / (LONGS_PER_BUCKET * 8));
+        this.table = new long[(int) (buckets * LONGS_PER_BUCKET)];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * @param key zobrist key of the position
+     * @param depth remaining depth
+     * @return remembered node count, -1 if there is none
+     */
+    public long probe(long key, int depth) {
+        final int index = bucketIndex(key);
+        for (int i = index; i < index + LONGS_PER_BUCKET; i += 2) {
+            final long data = this.table[i + 1];
+            if ((this.table[i] ^ data) == key && (data & DEPTH_MASK) == depth) {
+                return data >>> DEPTH_BITS;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param key zobrist key of the position
+     * @param depth remaining depth
+     * @param nodes node count of the position at given depth
+     */
+    public void store(long key, int depth, long nodes) {
+        final int index = bucketIndex(key);
+        final long data = (nodes << DEPTH_BITS) | depth;
+        final long storedData = this.table[index + 1];
+        //the deeper entry stays, the shallower count goes to the second entry
+        final int slot = storedData == 0 || (storedData & DEPTH_MASK) <= depth ? index : index + 2;
+        this.table[slot + 1] = data;
+        this.table[slot] = key ^ data;
+    }
+
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+    }
+
+    /**
+     * @return number of entries in the table
+     */
+    public int getCapacity() {
+        return this.table.length / 2;
+    }
+
+    private int bucketIndex(long key) {
+        return ((int) (key >>> 32) & this.bucketMask) * LONGS_PER_BUCKET;
+    }
+}
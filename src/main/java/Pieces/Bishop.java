@@ -1,7 +1,7 @@
 package Pieces;
 
 import Board.Board;
-import Board.BoardUtils;
+import Board.MagicBitboards;
 import Board.Tile;
 import Moves.Move;
 import Players.Team;
@@ -14,8 +14,6 @@ import java.util.List;
 
 public class Bishop extends Piece {
 
-    private final static int[] VECTOR_COORDS = {-9, -7, 7, 9}; //directions where piece can move
-
     public Bishop(Integer position, Team pieceTeam) {
         super(position, pieceTeam, PieceType.BISHOP, true);
     }
@@ -29,24 +27,17 @@ public class Bishop extends Piece {
 
         final List<Move> legalMoves = new ArrayList();
 
-        for (final int offset : VECTOR_COORDS) { //iterate through all directions
-            int newCoords = this.position + offset;
-            while (BoardUtils.isValidCoord(newCoords)) {
-                if (inFirstColumn(this.position, offset) || inEightColumn(this.position, offset)) { break; } //exceptions
-                final Tile newTile = board.getTile(newCoords);
-                if (newTile.empty()) {
-                    legalMoves.add(new Move.MajorMove(board, this, newCoords));
-                } else {
-                    final Piece attackedPiece = newTile.getPiece();
-                    if(this.pieceTeam != attackedPiece.pieceTeam) { //check if we are not attacking our team
-                        legalMoves.add(new Move.AttackMove(board, this, newCoords, attackedPiece));
-                    }
-                    break;
-                }
-                if (BoardUtils.FIRST_COLUMN[newCoords] || BoardUtils.EIGHTH_COLUMN[newCoords]) { break; }
-                newCoords += offset; //try next tile in same direction
+        //all attacked tiles in one lookup, tiles of our own team are removed
+        long targets = MagicBitboards.bishopAttacks(this.position, board.getOccupancy()) & ~board.getOccupancy(this.pieceTeam);
+        while (targets != 0) {
+            final int newCoords = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            final Tile newTile = board.getTile(newCoords);
+            if (newTile.empty()) { //if new tile is empty
+                legalMoves.add(new Move.MajorMove(board, this, newCoords));
+            } else { //if new tile is occupied, it has to be enemy's piece
+                legalMoves.add(new Move.AttackMove(board, this, newCoords, newTile.getPiece()));
             }
-
         }
 
         return legalMoves;
@@ -54,15 +45,7 @@ public class Bishop extends Piece {
 
     @Override
     public Piece movePiece(Move move) {
-        return new Bishop(move.getNewCoord(), move.getPiece().pieceTeam);
-    }
-
-    //exceptions
-    private static boolean inFirstColumn(final int currentPosition, final int offset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (offset == -9 || offset == 7);
-    }
-    private static boolean inEightColumn(final int currentPosition, final int offset) {
-        return BoardUtils.EIGHTH_COLUMN[currentPosition] && (offset == -7 || offset == 9);
+        return new Bishop(move.getNewCoord(), move.getPiece().pieceTeam, false);
     }
 
     @Override
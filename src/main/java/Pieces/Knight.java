@@ -11,7 +11,6 @@ import java.util.List;
 
 public class Knight extends Piece {
 
-    private final static int[] POSSIBLE_MOVES = {-17, -15, -10, -6, 6, 10, 15, 17}; //all possible positions
     public Knight(Integer position, Team pieceTeam) {
         super(position, pieceTeam, PieceType.KNIGHT, true);
     }
@@ -24,28 +23,18 @@ public class Knight extends Piece {
     @Override
     public List<Move> getPossibleMoves(Board board){
 
-        int newCoords;
         final List<Move> legalMoves = new ArrayList();
 
-        for (final int offset : POSSIBLE_MOVES) { //iterate through all possible positions
-            newCoords = this.position + offset;
+        for (final int newCoords : BoardUtils.KNIGHT_MOVES[this.position]) { //iterate through all tiles the knight can jump to
+            final Tile candidateTile = board.getTile(newCoords);
 
-            if(BoardUtils.isValidCoord(newCoords)) {  //check if we are on board
-                if (inFirstColumn(this.position, offset) || //handling exceptions
-                        (inSecondColumn(this.position, offset)) ||
-                        (inSeventhColumn(this.position, offset)) ||
-                        (inEightColumn(this.position, offset))) { continue; }
+            if (candidateTile.empty()) { //check is tile is empty
+                legalMoves.add(new Move.MajorMove(board, this, newCoords));
+            } else {  //if is occupied
+                final Piece attackedPiece = candidateTile.getPiece();
 
-                final Tile candidateTile = board.getTile(newCoords);
-
-                if (candidateTile.empty()) { //check is tile is empty
-                    legalMoves.add(new Move.MajorMove(board, this, newCoords));
-                } else {  //if is occupied
-                    final Piece attackedPiece = candidateTile.getPiece();
-
-                    if (this.pieceTeam != attackedPiece.pieceTeam) { //check if we are not attacking our team
-                        legalMoves.add(new Move.AttackMove(board, this, newCoords, attackedPiece));
-                    }
+                if (this.pieceTeam != attackedPiece.pieceTeam) { //check if we are not attacking our team
+                    legalMoves.add(new Move.AttackMove(board, this, newCoords, attackedPiece));
                 }
             }
         }
@@ -54,21 +43,7 @@ public class Knight extends Piece {
 
     @Override
     public Piece movePiece(Move move) {
-        return new Knight(move.getNewCoord(), move.getPiece().pieceTeam);
-    }
-
-    //exceptions
-    private static boolean inFirstColumn(int currentPosition, int offset) {
-        return BoardUtils.FIRST_COLUMN[currentPosition] && (offset == -17 || offset == -10 || offset == 6 || offset == 15);
-    }
-    private static boolean inSecondColumn(int currentPosition, int offset) {
-        return BoardUtils.SECOND_COLUMN[currentPosition] && (offset == -10 || offset == 6);
-    }
-    private static boolean inSeventhColumn(int currentPosition, int offset) {
-        return BoardUtils.SEVENTH_COLUMN[currentPosition] && (offset == -6 || offset == 10);
-    }
-    private static boolean inEightColumn(int currentPosition, int offset) {
-        return BoardUtils.EIGHTH_COLUMN[currentPosition] && (offset == -15 || offset == -6 || offset == 10 || offset == 17);
+        return new Knight(move.getNewCoord(), move.getPiece().pieceTeam, false);
     }
 
     @Override
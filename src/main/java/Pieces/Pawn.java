@@ -13,9 +13,6 @@ import java.util.List;
 
 public class Pawn extends Piece {
 
-    private static final int[] POSSIBLE_MOVES = {7, 8, 9, 16}; // 8 = normal move, 16 = jump, 7,9 = attack
-
-
     public Pawn(Integer position, Team pieceTeam) {
         super(position, pieceTeam, PieceType.PAWN, true);
     }
@@ -29,75 +26,59 @@ public class Pawn extends Piece {
 
         final List<Move> legalMoves = new ArrayList();
 
-        for(final int offset : POSSIBLE_MOVES) {
-
-            final int newCoord = this.position + (this.pieceTeam.getDirection()*offset); //new possible position for pawn
-            //based od piece's team and .getDirection we decide whether we move down or up
-            if (!BoardUtils.isValidCoord(newCoord)) { continue; }
+        final int newCoord = this.position + (this.pieceTeam.getDirection()*8); //new possible position for pawn
+        //based od piece's team and .getDirection we decide whether we move down or up
+        if (BoardUtils.isValidCoord(newCoord) && board.getTile(newCoord).empty()) { //normal move forward
+            if(this.pieceTeam.canBePromoted(newCoord)) {
+                addPromotions(legalMoves, new Move.PawnMove(board, this, newCoord));
+            } else {
+                legalMoves.add(new Move.PawnMove(board, this, newCoord));
+            }
+            final int jumpCoord = this.position + (this.pieceTeam.getDirection()*16);
+            if (this.firstMove() && ((BoardUtils.SECOND_ROW[this.position] && this.pieceTeam.isBlack()) ||
+                    (BoardUtils.SEVENTH_ROW[this.position] && this.pieceTeam.isWhite())) &&
+                    board.getTile(jumpCoord).empty()) { //checks if the tile in between and the new one are empty
+                legalMoves.add(new Move.PawnJump(board, this, jumpCoord));
+            }
+        }
 
-            if (offset == 8 && board.getTile(newCoord).empty()) { //normal move forward
-                if(this.pieceTeam.canBePromoted(newCoord)) {
-                    legalMoves.add(new Move.PawnPromotion(new Move.PawnMove(board, this, newCoord)));
-                } else {
-                    legalMoves.add(new Move.PawnMove(board, this, newCoord));
-                }
-            } else if (offset == 16 && this.firstMove()
-                    && ((BoardUtils.SECOND_ROW[this.position] && this.pieceTeam.isBlack()) || (BoardUtils.SEVENTH_ROW[this.position] && this.pieceTeam.isWhite()))) {
-                final int between = this.position + (this.pieceTeam.getDirection()*8);
-                if (board.getTile(between).empty() && board.getTile(newCoord).empty()) { //checks if new tile and the one in between is empty
-                    legalMoves.add(new Move.PawnJump(board, this, newCoord));
-                }
-            } else if (offset == 7 && !((BoardUtils.EIGHTH_COLUMN[this.position] && this.pieceTeam.isWhite()) || //attack, pawn can't be at the end tile
-                    (BoardUtils.FIRST_COLUMN[this.position] && this.pieceTeam.isBlack()))) {
-                if (!board.getTile(newCoord).empty()) {
-                    final Piece pieceOnNewTile = board.getTile(newCoord).getPiece();
-                    if (this.pieceTeam != pieceOnNewTile.pieceTeam) { //chceck if you attack enemy piece, not yours
-                        if(this.pieceTeam.canBePromoted(newCoord)) {
-                            legalMoves.add(new Move.PawnPromotion(new Move.PawnMove(board, this, newCoord)));
-                        } else {
-                            legalMoves.add(new Move.PawnAttackMove(board, this, newCoord, pieceOnNewTile));
-                        }
-                    }
-                } else if ((BoardUtils.FOURTH_ROW[this.position] && this.pieceTeam.isWhite())
-                        || (BoardUtils.FIFTH_ROW[this.position] && this.pieceTeam.isBlack())){
-                    int nextTile = this.position - this.pieceTeam.getDirection();
-                    Piece nextTilePiece = board.getTile(nextTile).getPiece();
-                    if (nextTilePiece != null) {
-                        if (this.pieceTeam != nextTilePiece.pieceTeam && nextTilePiece.getPieceType().isPawn()) {
-                            legalMoves.add(new Move.PawnEnPassantMove(board, this, newCoord, nextTilePiece));
-                        }
+        for (final int attackCoord : BoardUtils.PAWN_ATTACKS[this.pieceTeam.ordinal()][this.position]) { //attacks, table already excludes the edges
+            if (!board.getTile(attackCoord).empty()) {
+                final Piece pieceOnNewTile = board.getTile(attackCoord).getPiece();
+                if (this.pieceTeam != pieceOnNewTile.pieceTeam) { //chceck if you attack enemy piece, not yours
+                    if(this.pieceTeam.canBePromoted(attackCoord)) {
+                        addPromotions(legalMoves, new Move.PawnAttackMove(board, this, attackCoord, pieceOnNewTile));
+                    } else {
+                        legalMoves.add(new Move.PawnAttackMove(board, this, attackCoord, pieceOnNewTile));
                     }
                 }
-
-            } else if (offset == 9 && !((BoardUtils.FIRST_COLUMN[this.position] && this.pieceTeam.isWhite()) || //attack, pawn can't be at the end tile
-                    (BoardUtils.EIGHTH_COLUMN[this.position] && this.pieceTeam.isBlack()))) {
-                if (!board.getTile(newCoord).empty()) {
-                    final Piece pieceOnNewTile = board.getTile(newCoord).getPiece();
-                    if (this.pieceTeam != pieceOnNewTile.pieceTeam) { //chceck if you attack enemy piece, not yours
-                        if(this.pieceTeam.canBePromoted(newCoord)) {
-                            legalMoves.add(new Move.PawnPromotion(new Move.PawnMove(board, this, newCoord)));
-                        } else {
-                            legalMoves.add(new Move.PawnAttackMove(board, this, newCoord, pieceOnNewTile));
-                        }
-                    }
-                } else if ((BoardUtils.FOURTH_ROW[this.position] && this.pieceTeam.isWhite())
-                        || (BoardUtils.FIFTH_ROW[this.position] && this.pieceTeam.isBlack())){
-                    int nextTile = this.position + this.pieceTeam.getDirection();
-                    Piece nextTilePiece = board.getTile(nextTile).getPiece();
-                    if (nextTilePiece != null) {
-                        if (this.pieceTeam != nextTilePiece.pieceTeam && nextTilePiece.getPieceType().isPawn()) {
-                            legalMoves.add(new Move.PawnEnPassantMove(board, this, newCoord, nextTilePiece));
-                        }
-                    }
+            } else if (board.getEnPassantPawn() != null) {
+                //only the pawn that has just jumped can be taken en passant
+                final int nextTile = attackCoord - (this.pieceTeam.getDirection()*8); //tile next to the pawn
+                final Pawn enPassantPawn = board.getEnPassantPawn();
+                if (enPassantPawn.getPiecePosition() == nextTile && this.pieceTeam != enPassantPawn.pieceTeam) {
+                    legalMoves.add(new Move.PawnEnPassantMove(board, this, attackCoord, board.getTile(nextTile).getPiece()));
                 }
             }
         }
         return Collections.unmodifiableCollection(legalMoves);
     }
 
+    /**
+     * pawn can be promoted to any piece except king, queen goes first
+     * @param legalMoves
+     * @param move
+     */
+    private static void addPromotions(List<Move> legalMoves, Move move) {
+        legalMoves.add(new Move.PawnPromotion(move, PieceType.QUEEN));
+        legalMoves.add(new Move.PawnPromotion(move, PieceType.KNIGHT));
+        legalMoves.add(new Move.PawnPromotion(move, PieceType.ROOK));
+        legalMoves.add(new Move.PawnPromotion(move, PieceType.BISHOP));
+    }
+
     @Override
     public Piece movePiece(Move move) {
-        return new Pawn(move.getNewCoord(), move.getPiece().pieceTeam);
+        return new Pawn(move.getNewCoord(), move.getPiece().pieceTeam, false);
     }
 
     @Override
@@ -122,7 +103,24 @@ public class Pawn extends Piece {
     }
 
     public Piece getPromotionPiece() {
-        return new Queen(this.position, this.pieceTeam, false);
+        return getPromotionPiece(PieceType.QUEEN);
+    }
+
+    /**
+     * @param pieceType piece chosen by the player
+     * @return piece the pawn turns into
+     */
+    public Piece getPromotionPiece(PieceType pieceType) {
+        switch (pieceType) {
+            case KNIGHT:
+                return new Knight(this.position, this.pieceTeam, false);
+            case ROOK:
+                return new Rook(this.position, this.pieceTeam, false);
+            case BISHOP:
+                return new Bishop(this.position, this.pieceTeam, false);
+            default:
+                return new Queen(this.position, this.pieceTeam, false);
+        }
     }
 }
 
@@ -1,6 +1,7 @@
 package Players;
 
 import Board.Board;
+import com.google.common.base.Supplier;
 import Moves.Move;
 import Pieces.Piece;
 import Pieces.Rook;
@@ -11,8 +12,8 @@ import java.util.Collections;
 import java.util.List;
 
 public class BlackPlayer extends Player {
-    public BlackPlayer(Board board, Collection<Move> blackLegalMoves, Collection<Move> whiteLegalMoves) {
-        super(board, blackLegalMoves, whiteLegalMoves);
+    public BlackPlayer(Board board, Supplier<Collection<Move>> blackLegalMoves) {
+        super(board, blackLegalMoves);
     }
 
     @Override
@@ -31,8 +32,7 @@ public class BlackPlayer extends Player {
     }
 
     @Override
-    public Collection<Move> calculateKingCastles(final Collection<Move> playerLegals,
-                                                 final Collection<Move> opponentLegals) {
+    public Collection<Move> calculateKingCastles(final Collection<Move> playerLegals) {
 
         if (this.isInCheck()) {
             return Collections.emptyList();
@@ -40,13 +40,13 @@ public class BlackPlayer extends Player {
 
         final List<Move> kingCastles = new ArrayList();
 
-        if (this.king.getPiecePosition() == 4 && !this.isInCheck) {
+        if (this.king.firstMove() && this.king.getPiecePosition() == 4 && !this.isInCheck()) {
             //blacks king side castle
             if (this.board.getTile(5).getPiece() == null && board.getTile(6).getPiece() == null) {
                 final Piece kingSideRook = this.board.getTile(7).getPiece();
-                if (this.king.isFirstMove && kingSideRook != null && kingSideRook.firstMove() &&
-                        Player.calculateAttacksOnTile(5, opponentLegals).isEmpty() &&
-                        Player.calculateAttacksOnTile(6, opponentLegals).isEmpty() &&
+                if (kingSideRook != null && kingSideRook.firstMove() &&
+                        !this.board.isSquareAttacked(5, Team.WHITE) &&
+                        !this.board.isSquareAttacked(6, Team.WHITE) &&
                         kingSideRook.getPieceType().isRook()) {
                     kingCastles.add(new Move.KingSideCastleMove(this.board, this.king, 6, (Rook) kingSideRook, kingSideRook.getPiecePosition(), 5));
                 }
@@ -56,8 +56,8 @@ public class BlackPlayer extends Player {
                     this.board.getTile(3).getPiece() == null) {
                 final Piece queenSideRook = this.board.getTile(0).getPiece();
                 if (queenSideRook != null && queenSideRook.firstMove() &&
-                        Player.calculateAttacksOnTile(2, opponentLegals).isEmpty() &&
-                        Player.calculateAttacksOnTile(3, opponentLegals).isEmpty() &&
+                        !this.board.isSquareAttacked(2, Team.WHITE) &&
+                        !this.board.isSquareAttacked(3, Team.WHITE) &&
                         queenSideRook.getPieceType().isRook()) {
                     kingCastles.add(new Move.QueenSideCastleMove(this.board, this.king, 2, (Rook) queenSideRook, queenSideRook.getPiecePosition(), 3));
 
@@ -2,41 +2,52 @@ package Players;
 
 
 import Board.Board;
+import Endgame.KPKBitbase;
 import Moves.MakingMove;
 import Moves.Move;
 import Moves.MoveStatus;
 import Pieces.King;
 import Pieces.Piece;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 public abstract class Player {
     protected final Board board;
     public final King king;
-    public final Collection<Move> legalMoves;
-    protected final boolean isInCheck;
+    private final Supplier<Collection<Move>> pieceMoves;
+    private final Supplier<Collection<Move>> legalMoves;
+    private final Supplier<Boolean> isInCheck;
 
-    public Player(Board board, Collection<Move> legalMoves, Collection<Move> opponentsMoves) {
+    /**
+     * moves are computed the first time somebody asks for them and then remembered,
+     * most of the boards are only asked for moves of the player on move
+     * @param board
+     * @param pieceMoves moves of player's pieces (without castling)
+     */
+    public Player(Board board, final Supplier<Collection<Move>> pieceMoves) {
         this.board = board;
         this.king = findKingOnBoard();
+        this.pieceMoves = pieceMoves;
+        //attacks are looked up from the king's tile, opponent's moves are not needed
+        this.isInCheck = Suppliers.memoize(new Supplier<Boolean>() {
+            public Boolean get() {
+                return Player.this.board.isSquareAttacked(king.getPiecePosition(), getTeam().getOpponent());
+            }
+        });
         //find out all legal moves - including castling (that's why concat is used here)
-        legalMoves.addAll(calculateKingCastles(legalMoves, opponentsMoves));
-        this.legalMoves = Collections.unmodifiableCollection(legalMoves);
-        this.isInCheck = !Player.calculateAttacksOnTile(this.king.getPiecePosition(), opponentsMoves).isEmpty();
-    }
-
-    //check opponent's moves to see if our king is safe
-    public static Collection<Move> calculateAttacksOnTile(int piecePosition, Collection<Move> opponentsMoves) {
-        final Collection<Move> attackMoves = new ArrayList();
-        if (opponentsMoves.isEmpty()) { return Collections.emptyList(); }
-        for (Move move : opponentsMoves) {
-            if (piecePosition == move.getNewCoord()) {
-                attackMoves.add(move);
+        this.legalMoves = Suppliers.memoize(new Supplier<Collection<Move>>() {
+            public Collection<Move> get() {
+                final List<Move> moves = new ArrayList(pieceMoves.get());
+                moves.addAll(calculateKingCastles(pieceMoves.get()));
+                return Collections.unmodifiableList(moves);
             }
-        }
-        return attackMoves;
+        });
     }
 
     private King findKingOnBoard() {
@@ -57,33 +68,33 @@ public abstract class Player {
     public abstract Player getOpponent();
 
     public boolean isMoveLegal(final Move move) {
-        return this.legalMoves.contains(move);
+        return getLegalMoves().contains(move);
     }
 
     public boolean isInCheck() {
-        return this.isInCheck;
+        return this.isInCheck.get();
     }
 
     /**
-     * when the king is in danger, check if it can escape
+     * player on move has no legal move - the strictly legal moves of the board are generated once,
+     * no move has to be played to find out whether it leaves the king in check
      * @return
      */
     protected boolean noEscape() {
-        for (Move move : this.legalMoves) {
-            final MakingMove moving = makeMove(move);
-            if(moving.getMoveStatus().isDone()) {
-                return false;
-            }
-        }
-        return true;
+        return this.getTeam() == this.board.currentPlayer().getTeam() && this.board.getPackedLegalMoves().isEmpty();
     }
 
     public boolean isInCheckMate() {
-        return this.isInCheck && noEscape();
+        //king and pawn can't mate a lone king, no moves have to be generated for it
+        if (KPKBitbase.isKPK(this.board.getOccupancy(),
+                this.board.getPieces(Team.WHITE, Piece.PieceType.PAWN) | this.board.getPieces(Team.BLACK, Piece.PieceType.PAWN))) {
+            return false;
+        }
+        return isInCheck() && noEscape();
     }
 
     public boolean isInStaleMate() {
-        return !this.isInCheck && noEscape();
+        return !isInCheck() && noEscape();
     }
 
     public boolean isCastle() {
@@ -101,21 +112,31 @@ public abstract class Player {
             return new MakingMove(this.board, this.board, move, MoveStatus.ILLEGAL_MOVE);
         }
         final Board newBoard = move.execute();
-        final Collection<Move> kingAttacks = Player.calculateAttacksOnTile(newBoard.currentPlayer().getOpponent().findKingOnBoard().getPiecePosition(),
-                newBoard.currentPlayer().getLegalMoves());
-
-        if (!kingAttacks.isEmpty()) {
+        //the player who moved is the opponent on the new board, his king must not be attacked
+        if (newBoard.currentPlayer().getOpponent().isInCheck()) {
             return new MakingMove(this.board, this.board, move, MoveStatus.TO_CHECK);
         }
         return new MakingMove(this.board, newBoard, move, MoveStatus.DONE);
     }
 
+    /**
+     *
+     * @return legal moves of this player, including castling
+     */
     public Collection<Move> getLegalMoves() {
-        return this.board.currentPlayer().legalMoves;
+        return this.legalMoves.get();
+    }
+
+    /**
+     *
+     * @return moves of this player's pieces, without castling
+     */
+    public Collection<Move> getPieceMoves() {
+        return this.pieceMoves.get();
     }
 
 
-    public abstract Collection<Move> calculateKingCastles(Collection<Move> legalMoves, Collection<Move> opponentsMoves);
+    public abstract Collection<Move> calculateKingCastles(Collection<Move> legalMoves);
 
     public MakingMove unMakeMove(Move lastMove) {
         return new MakingMove(this.board, lastMove.undo(), lastMove, MoveStatus.DONE);
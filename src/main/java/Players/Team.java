@@ -27,6 +27,11 @@ public enum Team {
         public Player choosePlayer(WhitePlayer whitePlayer, BlackPlayer blackPlayer) {
             return whitePlayer;
         }
+
+        @Override
+        public Team getOpponent() {
+            return BLACK;
+        }
     },
     BLACK {
         public int getDirection() {
@@ -52,6 +57,11 @@ public enum Team {
         public Player choosePlayer(WhitePlayer whitePlayer, BlackPlayer blackPlayer) {
             return blackPlayer;
         }
+
+        @Override
+        public Team getOpponent() {
+            return WHITE;
+        }
     };
 
     /**
@@ -65,5 +75,7 @@ public enum Team {
     public abstract boolean canBePromoted(int position);
 
     public abstract Player choosePlayer(WhitePlayer whitePlayer, BlackPlayer blackPlayer);
+
+    public abstract Team getOpponent();
 }
 
@@ -1,6 +1,7 @@
 package Players;
 
 import Board.Board;
+import com.google.common.base.Supplier;
 import Moves.Move;
 import Pieces.Piece;
 import Pieces.Rook;
@@ -11,8 +12,8 @@ import java.util.Collections;
 import java.util.List;
 
 public class WhitePlayer extends Player {
-    public WhitePlayer(Board board, Collection<Move> whiteLegalMoves, Collection<Move> blackLegalMoves) {
-        super(board, whiteLegalMoves, blackLegalMoves);
+    public WhitePlayer(Board board, Supplier<Collection<Move>> whiteLegalMoves) {
+        super(board, whiteLegalMoves);
     }
 
     @Override
@@ -31,8 +32,7 @@ public class WhitePlayer extends Player {
     }
 
     @Override
-    public Collection<Move> calculateKingCastles(final Collection<Move> playerLegals,
-                                                 final Collection<Move> opponentLegals) {
+    public Collection<Move> calculateKingCastles(final Collection<Move> playerLegals) {
 
         if (this.isInCheck()) {
             return Collections.emptyList();
@@ -40,13 +40,13 @@ public class WhitePlayer extends Player {
 
         final List<Move> kingCastles = new ArrayList();
 
-        if (/*board.currentPlayer().king.isFirstMove && */this.king.getPiecePosition() == 60 && !this.isInCheck) {
+        if (this.king.firstMove() && this.king.getPiecePosition() == 60 && !this.isInCheck()) {
             //blacks king side castle
             if (this.board.getTile(61).getPiece() == null && board.getTile(62).getPiece() == null) {
                 final Piece kingSideRook = this.board.getTile(63).getPiece();
                 if (kingSideRook != null && kingSideRook.firstMove() &&
-                        Player.calculateAttacksOnTile(61, opponentLegals).isEmpty() &&
-                        Player.calculateAttacksOnTile(62, opponentLegals).isEmpty() &&
+                        !this.board.isSquareAttacked(61, Team.BLACK) &&
+                        !this.board.isSquareAttacked(62, Team.BLACK) &&
                         kingSideRook.getPieceType().isRook()) {
                     kingCastles.add(new Move.KingSideCastleMove(this.board, this.king, 62, (Rook) kingSideRook, kingSideRook.getPiecePosition(), 61));
                 }
@@ -56,8 +56,8 @@ public class WhitePlayer extends Player {
                     this.board.getTile(57).getPiece() == null) {
                 final Piece queenSideRook = this.board.getTile(56).getPiece();
                 if (queenSideRook != null && queenSideRook.firstMove() &&
-                        Player.calculateAttacksOnTile(58, opponentLegals).isEmpty() &&
-                        Player.calculateAttacksOnTile(59, opponentLegals).isEmpty() &&
+                        !this.board.isSquareAttacked(58, Team.BLACK) &&
+                        !this.board.isSquareAttacked(59, Team.BLACK) &&
                         queenSideRook.getPieceType().isRook()) {
                     kingCastles.add(new Move.QueenSideCastleMove(this.board, this.king, 58, (Rook) queenSideRook, queenSideRook.getPiecePosition(), 59));
 
@@ -0,0 +1,62 @@
+package Board;
+
+import Moves.LegalMoveGenerator;
+import Moves.MoveList;
+import Moves.PackedMove;
+import Perft.Perft;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * unmakeMove has to give back exactly the position before makeMove, the search and perft make and take back
+ * millions of moves on one board
+ */
+class BitBoardTest {
+
+    //perft positions with castling, en passant, promotions and pins
+    private static final String[] POSITIONS = {"std", "src/perft/kiwipete.txt", "src/perft/position3.txt",
+            "src/perft/position4.txt", "src/perft/position5.txt", "src/perft/position6.txt"};
+    private static final int DEPTH = 3;
+
+    @Test
+    void unmakeRestoresPosition() throws IOException {
+        for (final String position : POSITIONS) {
+            walk(BitBoard.fromBoard(Perft.loadBoard(position)), DEPTH, position);
+        }
+    }
+
+    private static void walk(BitBoard board, int depth, String line) {
+        if (depth == 0) {
+            return;
+        }
+        final MoveList moves = new MoveList();
+        LegalMoveGenerator.generateLegal(board, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            final BitBoard before = new BitBoard(board);
+            final String next = line + " " + PackedMove.toString(moves.get(i));
+            board.makeMove(moves.get(i));
+            walk(board, depth - 1, next);
+            board.unmakeMove();
+            assertSamePosition(before, board, next);
+        }
+    }
+
+    private static void assertSamePosition(BitBoard expected, BitBoard actual, String line) {
+        assertArrayEquals(expected.pieces, actual.pieces, "pieces after " + line);
+        assertArrayEquals(expected.teamOccupancy, actual.teamOccupancy, "team occupancy after " + line);
+        assertEquals(expected.occupied, actual.occupied, "occupancy after " + line);
+        assertArrayEquals(expected.mailbox, actual.mailbox, "mailbox after " + line);
+        assertEquals(expected.sideToMove, actual.sideToMove, "side to move after " + line);
+        assertEquals(expected.castlingRights, actual.castlingRights, "castling rights after " + line);
+        assertEquals(expected.enPassantSquare, actual.enPassantSquare, "en passant square after " + line);
+        assertEquals(expected.zobristKey, actual.zobristKey, "key after " + line);
+        assertEquals(expected.pawnKey, actual.pawnKey, "pawn key after " + line);
+        assertEquals(expected.midgame, actual.midgame, "midgame score after " + line);
+        assertEquals(expected.endgame, actual.endgame, "endgame score after " + line);
+        assertEquals(expected.phase, actual.phase, "phase after " + line);
+    }
+}
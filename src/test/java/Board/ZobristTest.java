@@ -0,0 +1,83 @@
+package Board;
+
+import Moves.LegalMoveGenerator;
+import Moves.MoveList;
+import Moves.PackedMove;
+import Perft.Perft;
+import Pieces.Piece;
+import Players.Team;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * incrementally kept keys must be the keys computed from scratch, the transposition table and the opening book
+ * rely on it; keys of positions are the ones of Polyglot books
+ */
+class ZobristTest {
+
+    private static final String[] POSITIONS = {"std", "src/perft/kiwipete.txt", "src/perft/position3.txt",
+            "src/perft/position4.txt", "src/perft/position5.txt", "src/perft/position6.txt"};
+    private static final int DEPTH = 3;
+
+    //tiles, a8 is 0
+    private static final int D7 = 11;
+    private static final int F7 = 13;
+    private static final int D5 = 27;
+    private static final int E5 = 28;
+    private static final int F5 = 29;
+    private static final int E4 = 36;
+    private static final int E2 = 52;
+
+    @Test
+    void incrementalKeysMatchComputedKeys() throws IOException {
+        for (final String position : POSITIONS) {
+            walk(BitBoard.fromBoard(Perft.loadBoard(position)), DEPTH, position);
+        }
+    }
+
+    private static void walk(BitBoard board, int depth, String line) {
+        assertEquals(Zobrist.computeKey(board), board.getZobristKey(), "key after " + line);
+        assertEquals(pawnKey(board), board.getPawnKey(), "pawn key after " + line);
+        if (depth == 0) {
+            return;
+        }
+        final MoveList moves = new MoveList();
+        LegalMoveGenerator.generateLegal(board, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            walk(board, depth - 1, line + " " + PackedMove.toString(moves.get(i)));
+            board.unmakeMove();
+        }
+    }
+
+    private static long pawnKey(BitBoard board) {
+        long key = 0L;
+        for (final Team team : Team.values()) {
+            final int piece = BitBoard.pieceIndex(team, Piece.PieceType.PAWN);
+            long pawns = board.getPieces(piece);
+            while (pawns != 0) {
+                key ^= Zobrist.pieceKey(piece, Long.numberOfTrailingZeros(pawns));
+                pawns &= pawns - 1;
+            }
+        }
+        return key;
+    }
+
+    //reference keys from the Polyglot book format specification
+    @Test
+    void polyglotReferenceKeys() {
+        final BitBoard board = BitBoard.fromBoard(Board.createStandardBoard());
+        assertEquals(0x463B96181691FC9CL, Zobrist.polyglotKey(board), "start position");
+        board.makeMove(E2, E4, null);
+        assertEquals(0x823C9B50FD114196L, Zobrist.polyglotKey(board), "1.e4");
+        board.makeMove(D7, D5, null);
+        assertEquals(0x0756B94461C50FB0L, Zobrist.polyglotKey(board), "1.e4 d5");
+        board.makeMove(E4, E5, null);
+        board.makeMove(F7, F5, null);
+        //white can take en passant, the column counts
+        assertEquals(0x22A48B5A8E47FF78L, Zobrist.polyglotKey(board), "1.e4 d5 2.e5 f5");
+    }
+}
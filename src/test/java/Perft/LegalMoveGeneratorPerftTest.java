@@ -0,0 +1,81 @@
+package Perft;
+
+import Board.BitBoard;
+import Moves.LegalMoveGenerator;
+import Moves.MoveList;
+import Moves.PackedMove;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * counts of the reference positions in src/perft/suite.txt made with the bitboard generator the search, mate detection,
+ * the book builder and hashed perft use - every leaf is really made and taken back, and in every position the captures
+ * generated for the quiescence search must be exactly the captures and promotions among the legal moves
+ */
+class LegalMoveGeneratorPerftTest {
+
+    private static final String SUITE = "src/perft/suite.txt";
+    private static final int MAX_DEPTH = 4;
+
+    @TestFactory
+    List<DynamicTest> suiteCounts() throws IOException {
+        final List<Perft.SuiteEntry> entries = Perft.readSuite(SUITE);
+        assertFalse(entries.isEmpty(), "no positions in " + SUITE);
+        final List<DynamicTest> tests = new ArrayList<DynamicTest>();
+        for (final Perft.SuiteEntry entry : entries) {
+            for (int d = 1; d <= Math.min(MAX_DEPTH, entry.expected.length); d++) {
+                final int depth = d;
+                tests.add(DynamicTest.dynamicTest(entry.name + " depth " + depth, new Executable() {
+                    public void execute() throws IOException {
+                        final BitBoard board = BitBoard.fromBoard(Perft.loadBoard(entry.board));
+                        assertEquals(entry.expected[depth - 1], perft(board, depth, MoveList.perPly(depth + 1), 0));
+                    }
+                }));
+            }
+        }
+        return tests;
+    }
+
+    private static long perft(BitBoard board, int depth, MoveList[] lists, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        final MoveList moves = lists[ply];
+        moves.clear();
+        LegalMoveGenerator.generateLegal(board, moves);
+        checkCaptures(board, moves, lists[ply + 1]);
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, depth - 1, lists, ply + 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * @param captures free list, the next ply clears it before using it
+     */
+    private static void checkCaptures(BitBoard board, MoveList moves, MoveList captures) {
+        captures.clear();
+        LegalMoveGenerator.generateLegalCaptures(board, captures);
+        int expected = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            final int move = moves.get(i);
+            if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+                expected++;
+                assertTrue(captures.contains(move), "capture " + PackedMove.toString(move) + " not generated");
+            }
+        }
+        assertEquals(expected, captures.size(), "captures " + captures + " of " + moves);
+    }
+}
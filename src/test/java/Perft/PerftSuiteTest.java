@@ -0,0 +1,90 @@
+package Perft;
+
+import Board.Board;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * counts of the reference positions in src/perft/suite.txt, only up to a depth that keeps the build fast,
+ * deeper counts are checked by "Perft suite"
+ */
+class PerftSuiteTest {
+
+    private static final String SUITE = "src/perft/suite.txt";
+    private static final int MAX_DEPTH = 3;
+    private static final int HASH_MEGABYTES = 1;          //small enough that entries get replaced and collide
+    private static final long HASHED_MAX_NODES = 5000000;  //hashed perft goes deeper, as long as counts are not bigger
+    private static final int FIRST_TRANSPOSITION = 5;     //subtrees can't transpose in fewer plies
+
+    @TestFactory
+    List<DynamicTest> suiteCounts() throws IOException {
+        return suite(MAX_DEPTH, Long.MAX_VALUE, new Counter() {
+            public long count(Board board, int depth) {
+                return Perft.perft(board, depth);
+            }
+        });
+    }
+
+    @TestFactory
+    List<DynamicTest> hashedCounts() throws IOException {
+        //one cache for the whole suite, so it also holds counts of other positions
+        final HashedPerft perft = new HashedPerft(HASH_MEGABYTES, 2);
+        return suite(Integer.MAX_VALUE, HASHED_MAX_NODES, new Counter() {
+            public long count(Board board, int depth) {
+                final long nodes = perft.perft(board, depth);
+                if (depth >= FIRST_TRANSPOSITION) {
+                    assertTrue(perft.getHits() > 0, "the cache was never used");
+                }
+                return nodes;
+            }
+        });
+    }
+
+    @TestFactory
+    List<DynamicTest> parallelCounts() throws IOException {
+        return suite(MAX_DEPTH, Long.MAX_VALUE, new Counter() {
+            public long count(Board board, int depth) {
+                final ParallelPerft perft = new ParallelPerft(2, 2);
+                try {
+                    return perft.perft(board, depth);
+                } finally {
+                    perft.shutdown();
+                }
+            }
+        });
+    }
+
+    private interface Counter {
+        long count(Board board, int depth);
+    }
+
+    /**
+     * @return one test for every position and depth up to maxDepth, depths with more than maxNodes are left out
+     */
+    private static List<DynamicTest> suite(int maxDepth, long maxNodes, final Counter counter) throws IOException {
+        final List<Perft.SuiteEntry> entries = Perft.readSuite(SUITE);
+        assertFalse(entries.isEmpty(), "no positions in " + SUITE);
+        final List<DynamicTest> tests = new ArrayList<DynamicTest>();
+        for (final Perft.SuiteEntry entry : entries) {
+            for (int d = 1; d <= Math.min(maxDepth, entry.expected.length) && entry.expected[d - 1] <= maxNodes; d++) {
+                final int depth = d;
+                tests.add(DynamicTest.dynamicTest(entry.name + " depth " + depth, new Executable() {
+                    public void execute() throws IOException {
+                        final Board board = Perft.loadBoard(entry.board);
+                        assertEquals(entry.expected[depth - 1], counter.count(board, depth));
+                    }
+                }));
+            }
+        }
+        return tests;
+    }
+}